@@ -0,0 +1,128 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.ReactiveSpringBootApplication;
+import com.reactive.nexo.service.ScheduleConflictIndex;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+// Aplicación completa sobre H2 en memoria con millones de citas sembradas en una sola sentencia SQL.
+// Cada empleado tiene una cita de 30 minutos por hora desde BASE, así que los huecos son predecibles.
+final class BenchmarkContext implements AutoCloseable {
+
+    static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusDays(21);
+
+    private static final String SEED = "INSERT INTO schedule (employee_id, user_id, start_at, end_at, details, " +
+            "headquarters, office, in_person, group_session) " +
+            "SELECT MOD(X, :employees) + 1, MOD(X, :users) + 1, " +
+            "DATEADD('HOUR', X / :employees, :base), DATEADD('MINUTE', 30, DATEADD('HOUR', X / :employees, :base)), " +
+            "'Consulta de carga', 'Sede Central', 'Oficina 101', FALSE, FALSE " +
+            "FROM SYSTEM_RANGE(1, :rows)";
+
+    private final ConfigurableApplicationContext context;
+    private final int employees;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, int employees) {
+        this.context = context;
+        this.employees = employees;
+    }
+
+    static BenchmarkContext start(int rows, int employees, int users) {
+        return start(rows, employees, users, new String[0]);
+    }
+
+    // extraProperties en formato nombre=valor, aplicadas después de las del contexto de benchmarks
+    static BenchmarkContext start(int rows, int employees, int users, String... extraProperties) {
+        String url = "r2dbc:h2:mem:///bench-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+        // Se siembra antes de arrancar para que el índice de conflictos cargue todas las filas al iniciar
+        ConnectionFactory connectionFactory = ConnectionFactories.get(url);
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/schema.sql"))
+                .populate(connectionFactory)
+                .block();
+        DatabaseClient.create(connectionFactory).sql(SEED)
+                .bind("employees", employees)
+                .bind("users", users)
+                .bind("base", BASE)
+                .bind("rows", rows)
+                .fetch()
+                .rowsUpdated()
+                .block();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveSpringBootApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.r2dbc.url=" + url,
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.data.r2dbc=WARN",
+                        "schedule.conflict-index.horizon-days=" + (Duration.between(BASE, LocalDateTime.now()).toDays() + 1))
+                .properties(extraProperties)
+                .run();
+
+        ScheduleConflictIndex conflictIndex = context.getBean(ScheduleConflictIndex.class);
+        long deadline = System.nanoTime() + Duration.ofMinutes(5).toNanos();
+        while (!conflictIndex.isReady()) {
+            if (System.nanoTime() > deadline) {
+                context.close();
+                throw new IllegalStateException("Conflict index did not finish loading");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return new BenchmarkContext(context, employees);
+    }
+
+    // Aplicación sobre una base de datos existente (perfil por defecto, PostgreSQL), sin sembrar ni esperar al
+    // índice de conflictos; varias llamadas con la misma URL simulan varios nodos
+    static BenchmarkContext connect(String url, String username, String password, String... extraProperties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveSpringBootApplication.class)
+                .properties(
+                        "spring.r2dbc.url=" + url,
+                        "spring.r2dbc.username=" + username,
+                        "spring.r2dbc.password=" + password,
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.data.r2dbc=WARN",
+                        "schedule.sample-data.enabled=false")
+                .properties(extraProperties)
+                .run();
+        return new BenchmarkContext(context, 0);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    int employees() {
+        return employees;
+    }
+
+    // Inicio de la k-ésima cita sembrada de un empleado (k >= 1 para el empleado 1)
+    static LocalDateTime slot(long k) {
+        return BASE.plusHours(k);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
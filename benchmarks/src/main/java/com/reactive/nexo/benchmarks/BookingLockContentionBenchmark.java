@@ -0,0 +1,59 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.service.ScheduleBookingLocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Contención de los cerrojos de reserva: con keys=1 todos los hilos reservan al mismo empleado y usuario
+// (peor caso, cola FIFO en una sola franja); con más claves las reservas se reparten entre franjas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class BookingLockContentionBenchmark {
+
+    @Param({"1", "16", "1024"})
+    public int keys;
+
+    @Param({"1024"})
+    public int stripes;
+
+    private ScheduleBookingLocks locks;
+
+    @Setup
+    public void setUp() {
+        locks = new ScheduleBookingLocks(stripes);
+    }
+
+    @Benchmark
+    public Boolean acquireAndRelease() {
+        long key = ThreadLocalRandom.current().nextInt(keys);
+        return locks.withEmployeeAndUser(key, key, () -> Mono.just(Boolean.TRUE)).block();
+    }
+
+    // La acción termina en otro hilo, como una consulta R2DBC, así que el turno se libera de forma asíncrona
+    @Benchmark
+    public Boolean acquireAndReleaseAsync() {
+        long key = ThreadLocalRandom.current().nextInt(keys);
+        return locks.withEmployeeAndUser(key, key,
+                () -> Mono.fromCallable(() -> Boolean.TRUE).subscribeOn(Schedulers.parallel())).block();
+    }
+}
@@ -0,0 +1,120 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.dto.CreateScheduleRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+// Generador sintético de una clínica: jornada de 8:00 a 18:00 en franjas de 30 minutos, una ocupación inicial
+// configurable y una proporción de franjas que son sesiones grupales con varios pacientes a la misma hora
+final class ClinicWorkload {
+
+    static final int OPENING_HOUR = 8;
+    static final int SLOTS_PER_DAY = 20;
+    static final int SLOT_MINUTES = 30;
+
+    enum Operation {
+        CREATE, UPDATE, DELETE, GET, EMPLOYEE_WINDOW, PAGE
+    }
+
+    private final LoadTestOptions options;
+    private final LocalDate firstDay;
+    private final Operation[] mix;
+
+    ClinicWorkload(LoadTestOptions options) {
+        this.options = options;
+        this.firstDay = LocalDate.now().plusDays(1);
+        this.mix = expandMix(options.mix());
+    }
+
+    // Reservas iniciales; un paciente elegido al azar puede tener ya cita a esa hora y el servidor la rechazará
+    List<CreateScheduleRequest> seed() {
+        Random random = new Random(options.randomSeed());
+        List<CreateScheduleRequest> requests = new ArrayList<>();
+        for (int day = 0; day < options.seedDays(); day++) {
+            for (long employeeId = 1; employeeId <= options.employees(); employeeId++) {
+                for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                    if (random.nextDouble() >= options.occupancy()) {
+                        continue;
+                    }
+                    LocalDateTime startAt = slotStart(day, slot);
+                    if (random.nextDouble() < options.groupRatio()) {
+                        for (int i = 0; i < options.groupSize(); i++) {
+                            requests.add(request(employeeId, 1 + random.nextInt(options.patients()), startAt, true));
+                        }
+                    } else {
+                        requests.add(request(employeeId, 1 + random.nextInt(options.patients()), startAt, false));
+                    }
+                }
+            }
+        }
+        return requests;
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        return mix[random.nextInt(mix.length)];
+    }
+
+    // Reserva nueva en una franja aleatoria; colisiona con la ocupación existente en la proporción 'occupancy'
+    CreateScheduleRequest randomBooking(SplittableRandom random) {
+        long employeeId = 1 + random.nextInt(options.employees());
+        long userId = 1 + random.nextInt(options.patients());
+        boolean group = random.nextDouble() < options.groupRatio();
+        return request(employeeId, userId, randomSlot(random), group);
+    }
+
+    CreateScheduleRequest moveBooking(SplittableRandom random, long employeeId, long userId) {
+        return request(employeeId, userId, randomSlot(random), false);
+    }
+
+    long randomEmployee(SplittableRandom random) {
+        return 1 + random.nextInt(options.employees());
+    }
+
+    LocalDateTime randomWeekStart(SplittableRandom random) {
+        return firstDay.plusDays(random.nextInt(Math.max(1, options.seedDays()))).atStartOfDay();
+    }
+
+    private LocalDateTime randomSlot(SplittableRandom random) {
+        return slotStart(random.nextInt(Math.max(1, options.seedDays())), random.nextInt(SLOTS_PER_DAY));
+    }
+
+    private LocalDateTime slotStart(int day, int slot) {
+        return firstDay.plusDays(day).atTime(OPENING_HOUR, 0).plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    private static CreateScheduleRequest request(long employeeId, long userId, LocalDateTime startAt, boolean group) {
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setEmployeeId(employeeId);
+        request.setUserId(userId);
+        request.setStartAt(startAt);
+        request.setEndAt(startAt.plusMinutes(SLOT_MINUTES));
+        request.setDetails(group ? "Taller grupal" : "Consulta general");
+        request.setHeadquarters("Sede Central");
+        request.setOffice("Oficina " + (100 + employeeId));
+        request.setInPerson(true);
+        request.setGroupSession(group);
+        return request;
+    }
+
+    private static Operation[] expandMix(LoadTestOptions.Mix mix) {
+        List<Operation> operations = new ArrayList<>(mix.total());
+        add(operations, Operation.CREATE, mix.create());
+        add(operations, Operation.UPDATE, mix.update());
+        add(operations, Operation.DELETE, mix.delete());
+        add(operations, Operation.GET, mix.get());
+        add(operations, Operation.EMPLOYEE_WINDOW, mix.employeeWindow());
+        add(operations, Operation.PAGE, mix.page());
+        return operations.toArray(Operation[]::new);
+    }
+
+    private static void add(List<Operation> operations, Operation operation, int weight) {
+        for (int i = 0; i < weight; i++) {
+            operations.add(operation);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.service.ScheduleMetrics;
+import com.reactive.nexo.service.ScheduleService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Comprobación de dobles reservas: en cada ronda lanza --concurrency altas simultáneas de la misma franja,
+// alternando el mismo empleado con usuarios distintos y el mismo usuario con empleados distintos, y exige
+// exactamente una alta y concurrency - 1 rechazos 409 sin ningún otro error. Sin --url corre sobre H2 en un solo
+// nodo (lo garantizan los cerrojos de reserva); con --url arranca --nodes aplicaciones contra esa base de datos
+// PostgreSQL y reparte las altas entre ellas, así que entre nodos lo garantiza la restricción de exclusión (el
+// índice de conflictos se desactiva para no depender de él). Las franjas caen años en el futuro con ids
+// aleatorios y las citas creadas se borran al terminar. Sale con código 1 si alguna ronda falla
+public final class DoubleBookingRunner {
+
+    private record Outcome(Schedule created, boolean rejected, Throwable error) {
+    }
+
+    private DoubleBookingRunner() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "50"));
+        String url = options.get("url");
+
+        List<BenchmarkContext> nodes = new ArrayList<>();
+        int failures;
+        try {
+            if (url == null) {
+                nodes.add(BenchmarkContext.start(1_000, 10, 100));
+            } else {
+                int count = Integer.parseInt(options.getOrDefault("nodes", "2"));
+                // Se arrancan de uno en uno: el primero aplica el esquema si hace falta
+                for (int i = 0; i < count; i++) {
+                    nodes.add(BenchmarkContext.connect(url, options.getOrDefault("username", "postgres"),
+                            options.getOrDefault("password", "postgres"),
+                            "schedule.conflict-index.enabled=false",
+                            "schedule.archive.enabled=false"));
+                }
+            }
+            failures = run(nodes, concurrency, rounds);
+        } finally {
+            nodes.forEach(BenchmarkContext::close);
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static int run(List<BenchmarkContext> nodes, int concurrency, int rounds) {
+        List<ScheduleService> services = nodes.stream().map(node -> node.getBean(ScheduleService.class)).toList();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusYears(10)
+                .plusHours(ThreadLocalRandom.current().nextLong(0, 100_000));
+        long idBase = ThreadLocalRandom.current().nextLong(1_000_000_000L, 2_000_000_000L);
+        double databaseBefore = databaseRejections(nodes);
+
+        System.out.printf("%d node(s), %d concurrent bookings per round%n", nodes.size(), concurrency);
+        System.out.printf("%6s %9s %8s %8s %8s%n", "round", "resource", "created", "409", "errors");
+        List<Schedule> created = new ArrayList<>();
+        int failures = 0;
+        for (int round = 0; round < rounds; round++) {
+            boolean sameEmployee = round % 2 == 0;
+            LocalDateTime startAt = base.plusHours(round);
+            long shared = idBase + round;
+            long first = idBase + 1_000_000L + (long) round * concurrency;
+            List<Outcome> outcomes = Flux.range(0, concurrency)
+                    .flatMap(i -> Mono.defer(() -> services.get(i % services.size()).createSchedule(request(
+                                            sameEmployee ? shared : first + i, sameEmployee ? first + i : shared,
+                                            startAt)))
+                                    .map(schedule -> new Outcome(schedule, false, null))
+                                    .onErrorResume(e -> Mono.just(e instanceof ResponseStatusException status
+                                            && status.getStatusCode() == HttpStatus.CONFLICT
+                                            ? new Outcome(null, true, null)
+                                            : new Outcome(null, false, e)))
+                                    .subscribeOn(Schedulers.parallel()),
+                            concurrency)
+                    .collectList()
+                    .block();
+
+            long successes = outcomes.stream().filter(outcome -> outcome.created() != null).count();
+            long rejected = outcomes.stream().filter(Outcome::rejected).count();
+            List<Throwable> errors = outcomes.stream().map(Outcome::error).filter(e -> e != null).toList();
+            outcomes.stream().map(Outcome::created).filter(schedule -> schedule != null).forEach(created::add);
+            boolean passed = successes == 1 && rejected == concurrency - 1 && errors.isEmpty();
+            System.out.printf("%6d %9s %8d %8d %8d%s%n", round, sameEmployee ? "employee" : "user",
+                    successes, rejected, errors.size(), passed ? "" : "  FAILED");
+            errors.stream().limit(3).forEach(e -> System.out.println("       " + e));
+            if (!passed) {
+                failures++;
+            }
+        }
+
+        double database = databaseRejections(nodes) - databaseBefore;
+        System.out.printf("%n%d of %d rounds failed; %.0f rejections came from the database constraint%n",
+                failures, rounds, database);
+        if (nodes.size() > 1 && database == 0) {
+            System.out.println("No booking reached the constraint: raise --concurrency or --nodes to exercise it");
+        }
+
+        Flux.fromIterable(created)
+                .flatMap(schedule -> services.get(0).deleteSchedule(schedule.getId()))
+                .blockLast();
+        return failures;
+    }
+
+    private static CreateScheduleRequest request(long employeeId, long userId, LocalDateTime startAt) {
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setEmployeeId(employeeId);
+        request.setUserId(userId);
+        request.setStartAt(startAt);
+        request.setEndAt(startAt.plusMinutes(30));
+        request.setDetails("Double booking check");
+        return request;
+    }
+
+    // Rechazos de toOverlapConflict (reason=database) sumados en todos los nodos
+    private static double databaseRejections(List<BenchmarkContext> nodes) {
+        return nodes.stream()
+                .flatMap(node -> node.getBean(MeterRegistry.class).find(ScheduleMetrics.CONFLICTS_COUNTER)
+                        .tag("reason", "database")
+                        .counters()
+                        .stream())
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,117 @@
+package com.reactive.nexo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latencias y códigos de respuesta por tipo de operación. Las latencias se guardan completas y se ordenan
+// al final, así los percentiles son exactos; se miden desde el instante previsto de la operación para no
+// ocultar las esperas cuando el servidor se satura (coordinated omission)
+final class LoadReport {
+
+    private final Map<ClinicWorkload.Operation, Endpoint> endpoints = new EnumMap<>(ClinicWorkload.Operation.class);
+
+    LoadReport() {
+        for (ClinicWorkload.Operation operation : ClinicWorkload.Operation.values()) {
+            endpoints.put(operation, new Endpoint());
+        }
+    }
+
+    void record(ClinicWorkload.Operation operation, int status, long latencyNanos) {
+        endpoints.get(operation).record(status, latencyNanos);
+    }
+
+    Map<String, Object> summary(Duration elapsed) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        endpoints.forEach((operation, endpoint) -> {
+            if (endpoint.count() > 0) {
+                summary.put(operation.name().toLowerCase(), endpoint.summary(elapsed));
+            }
+        });
+        return summary;
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        out.printf("%-16s %9s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "2xx", "409", "errors");
+        endpoints.forEach((operation, endpoint) -> {
+            if (endpoint.count() == 0) {
+                return;
+            }
+            Map<String, Object> row = endpoint.summary(elapsed);
+            out.printf("%-16s %9d %10.1f %9.2f %9.2f %9.2f %9d %9d %9d%n",
+                    operation.name().toLowerCase(), row.get("requests"), row.get("throughput"),
+                    row.get("p50Ms"), row.get("p99Ms"), row.get("maxMs"),
+                    row.get("success"), row.get("conflicts"), row.get("errors"));
+        });
+    }
+
+    void write(Path path, Map<String, Object> document) throws IOException {
+        new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), document);
+    }
+
+    private static final class Endpoint {
+
+        private final AtomicLong success = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        void record(int status, long latencyNanos) {
+            if (status >= 200 && status < 300) {
+                success.incrementAndGet();
+            } else if (status == 409) {
+                conflicts.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+            synchronized (this) {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = latencyNanos;
+            }
+        }
+
+        synchronized int count() {
+            return size;
+        }
+
+        synchronized Map<String, Object> summary(Duration elapsed) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", size);
+            row.put("throughput", size / Math.max(0.001, elapsed.toMillis() / 1000.0));
+            row.put("p50Ms", percentile(sorted, 0.50));
+            row.put("p99Ms", percentile(sorted, 0.99));
+            row.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+            row.put("success", success.get());
+            row.put("conflicts", conflicts.get());
+            row.put("errors", errors.get());
+            row.put("conflictRate", size == 0 ? 0.0 : conflicts.get() / (double) size);
+            return row;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.reactive.nexo.benchmarks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Parámetros de la prueba de carga en formato --nombre=valor. Sin --baseUrl se arranca la aplicación sobre H2
+record LoadTestOptions(
+        String baseUrl,
+        int employees,
+        int patients,
+        int seedDays,
+        double occupancy,
+        double groupRatio,
+        int groupSize,
+        Duration duration,
+        double rate,
+        int maxInFlight,
+        Profile profile,
+        double burstFactor,
+        Duration burstLength,
+        Duration burstEvery,
+        Mix mix,
+        long randomSeed,
+        String report) {
+
+    // Perfil de llegada de operaciones: constante, rampa lineal hasta 'rate' o picos periódicos (apertura de agenda)
+    enum Profile {
+        STEADY, RAMP, BURST
+    }
+
+    // Reparto de operaciones en porcentaje; no hace falta que sumen 100
+    record Mix(int create, int update, int delete, int get, int employeeWindow, int page) {
+
+        int total() {
+            return create + update + delete + get + employeeWindow + page;
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                values.get("baseUrl"),
+                intValue(values, "employees", 50),
+                intValue(values, "patients", 5000),
+                intValue(values, "seedDays", 14),
+                doubleValue(values, "occupancy", 0.5),
+                doubleValue(values, "groupRatio", 0.1),
+                intValue(values, "groupSize", 6),
+                Duration.ofSeconds(intValue(values, "durationSeconds", 60)),
+                doubleValue(values, "rate", 200),
+                intValue(values, "maxInFlight", 256),
+                Profile.valueOf(values.getOrDefault("profile", "steady").toUpperCase()),
+                doubleValue(values, "burstFactor", 5),
+                Duration.ofSeconds(intValue(values, "burstSeconds", 5)),
+                Duration.ofSeconds(intValue(values, "burstEverySeconds", 30)),
+                new Mix(intValue(values, "create", 25),
+                        intValue(values, "update", 10),
+                        intValue(values, "delete", 5),
+                        intValue(values, "get", 15),
+                        intValue(values, "employeeWindow", 40),
+                        intValue(values, "page", 5)),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.get("report"));
+        if (options.employees < 1 || options.patients < 1 || options.rate <= 0 || options.maxInFlight < 1
+                || options.mix.total() <= 0) {
+            throw new IllegalArgumentException("employees, patients, rate, maxInFlight and the operation mix must be positive");
+        }
+        return options;
+    }
+
+    // Operaciones por segundo previstas en el instante 'elapsed' de la prueba
+    double rateAt(Duration elapsed) {
+        return switch (profile) {
+            case STEADY -> rate;
+            case RAMP -> Math.max(1, rate * elapsed.toMillis() / Math.max(1, duration.toMillis()));
+            case BURST -> elapsed.toMillis() % burstEvery.toMillis() < burstLength.toMillis() ? rate * burstFactor : rate;
+        };
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    private static double doubleValue(Map<String, String> values, String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+}
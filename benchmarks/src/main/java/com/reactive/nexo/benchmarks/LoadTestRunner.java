@@ -0,0 +1,224 @@
+package com.reactive.nexo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.dto.ScheduleBatchResult;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Prueba de carga de lazo abierto: siembra la agenda con POST /batch y después lanza operaciones al ritmo que
+// marca el perfil, con un máximo de peticiones en vuelo, e informa de rendimiento, p50/p99 y conflictos.
+//
+//   java -cp benchmarks/target/benchmarks.jar com.reactive.nexo.benchmarks.LoadTestRunner \
+//        --employees=200 --patients=20000 --rate=500 --profile=burst --durationSeconds=120 --report=load.json
+public final class LoadTestRunner {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private final LoadTestOptions options;
+    private final ClinicWorkload workload;
+    private final WebClient client;
+    private final LoadReport report = new LoadReport();
+    private final Bookings bookings = new Bookings();
+
+    private LoadTestRunner(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.workload = new ClinicWorkload(options);
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(options.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl + "/api/v1/schedule")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        BenchmarkContext embedded = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            embedded = BenchmarkContext.start(0, 1, 1);
+            baseUrl = "http://localhost:" + embedded.port();
+        }
+        try {
+            new LoadTestRunner(options, baseUrl).run();
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("options", options);
+        document.put("seed", seed());
+
+        long start = System.nanoTime();
+        AtomicLong credit = new AtomicLong();
+        SplittableRandom random = new SplittableRandom(options.randomSeed());
+        long ticks = options.duration().toNanos() / TICK.toNanos();
+
+        // Cada tick calcula cuántas operaciones tocan según el perfil; si el cliente está saturado los ticks se
+        // encolan y la latencia sigue contando desde el instante previsto
+        Flux.interval(TICK)
+                .onBackpressureBuffer()
+                .take(ticks)
+                .concatMapIterable(tick -> due(tick, start, credit, random))
+                .flatMap(this::execute, options.maxInFlight())
+                .blockLast();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        System.out.printf("%nTraffic: %s, profile %s, base rate %.0f ops/s%n",
+                elapsed, options.profile().name().toLowerCase(), options.rate());
+        report.print(System.out, elapsed);
+        document.put("traffic", report.summary(elapsed));
+        if (options.report() != null) {
+            report.write(Path.of(options.report()), document);
+        }
+    }
+
+    private Map<String, Object> seed() {
+        List<CreateScheduleRequest> requests = workload.seed();
+        long start = System.nanoTime();
+        Map<Integer, Long> statuses = client.post()
+                .uri("/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(requests), CreateScheduleRequest.class)
+                .retrieve()
+                .bodyToFlux(ScheduleBatchResult.class)
+                .doOnNext(result -> {
+                    if (result.getSchedule() != null) {
+                        bookings.add(result.getSchedule().getId(), result.getSchedule().getEmployeeId(),
+                                result.getSchedule().getUserId());
+                    }
+                })
+                .collect(LinkedHashMap<Integer, Long>::new,
+                        (counts, result) -> counts.merge(result.getStatus(), 1L, Long::sum))
+                .block();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        System.out.printf("Seeded %d bookings in %s (%.0f/s), statuses %s%n", requests.size(), elapsed,
+                requests.size() / Math.max(0.001, elapsed.toMillis() / 1000.0), statuses);
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("requests", requests.size());
+        seed.put("millis", elapsed.toMillis());
+        seed.put("statuses", statuses);
+        return seed;
+    }
+
+    private List<Scheduled> due(long tick, long start, AtomicLong credit, SplittableRandom random) {
+        Duration offset = TICK.multipliedBy(tick);
+        // Crédito en milésimas de operación para acumular ritmos que no llegan a una operación por tick
+        long milliOps = Math.round(options.rateAt(offset) * TICK.toNanos() / 1_000_000.0);
+        long available = credit.addAndGet(milliOps);
+        int count = (int) (available / 1000);
+        credit.addAndGet(-count * 1000L);
+        List<Scheduled> scheduled = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            scheduled.add(new Scheduled(workload.nextOperation(random), start + offset.toNanos(), random.split()));
+        }
+        return scheduled;
+    }
+
+    private Mono<Void> execute(Scheduled scheduled) {
+        SplittableRandom random = scheduled.random();
+        Mono<Integer> call = switch (scheduled.operation()) {
+            case CREATE -> client.post()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(workload.randomBooking(random))
+                    .exchangeToMono(response -> response.statusCode().value() == 201
+                            ? response.bodyToMono(JsonNode.class)
+                            .doOnNext(body -> bookings.add(body.get("id").asLong(), body.get("employeeId").asLong(),
+                                    body.get("userId").asLong()))
+                            .thenReturn(201)
+                            : response.releaseBody().thenReturn(response.statusCode().value()));
+            case UPDATE -> {
+                Bookings.Booking booking = bookings.random(random);
+                yield booking == null ? Mono.empty() : client.put()
+                        .uri("/{id}", booking.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(workload.moveBooking(random, booking.employeeId(), booking.userId()))
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+            }
+            case DELETE -> {
+                Bookings.Booking booking = bookings.take(random);
+                yield booking == null ? Mono.empty() : client.delete()
+                        .uri("/{id}", booking.id())
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+            }
+            case GET -> {
+                Bookings.Booking booking = bookings.random(random);
+                yield booking == null ? Mono.empty() : client.get()
+                        .uri("/{id}", booking.id())
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+            }
+            case EMPLOYEE_WINDOW -> {
+                LocalDateTime from = workload.randomWeekStart(random);
+                yield client.get()
+                        .uri(uri -> uri.path("/employee/{employeeId}")
+                                .queryParam("from", from)
+                                .queryParam("to", from.plusDays(7))
+                                .build(workload.randomEmployee(random)))
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+            }
+            case PAGE -> client.get()
+                    .uri(uri -> uri.queryParam("page", random.nextInt(50)).queryParam("size", 20).build())
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+        };
+        return call
+                .onErrorReturn(-1)
+                .doOnNext(status -> report.record(scheduled.operation(), status, System.nanoTime() - scheduled.intendedAt()))
+                .then();
+    }
+
+    private record Scheduled(ClinicWorkload.Operation operation, long intendedAt, SplittableRandom random) {
+    }
+
+    // Citas existentes que pueden modificarse o borrarse; se eligen al azar con borrado por intercambio O(1)
+    private static final class Bookings {
+
+        record Booking(long id, long employeeId, long userId) {
+        }
+
+        private final List<Booking> items = new ArrayList<>();
+
+        synchronized void add(long id, long employeeId, long userId) {
+            items.add(new Booking(id, employeeId, userId));
+        }
+
+        synchronized Booking random(SplittableRandom random) {
+            return items.isEmpty() ? null : items.get(random.nextInt(items.size()));
+        }
+
+        synchronized Booking take(SplittableRandom random) {
+            if (items.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(items.size());
+            Booking booking = items.get(index);
+            items.set(index, items.get(items.size() - 1));
+            items.remove(items.size() - 1);
+            return booking;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.config.ScheduleResourceProperties;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleRepository;
+import com.reactive.nexo.service.ConflictDimension;
+import com.reactive.nexo.service.LocalScheduleInvalidationBus;
+import com.reactive.nexo.service.ScheduleConflictIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Comprobaciones de solapamiento que hace validateNoOverlap contra el índice en memoria, sin base de datos.
+// El recorrido completo (índice + series + cerrojos) se mide en ScheduleServiceBenchmark.rejectOverlappingCreate
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OverlapValidationBenchmark {
+
+    private static final int EMPLOYEES = 100;
+
+    @Param({"100", "10000"})
+    public int schedulesPerEmployee;
+
+    private ScheduleConflictIndex conflictIndex;
+    private LocalDateTime base;
+
+    @Setup
+    public void setUp() {
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Schedule> schedules = new ArrayList<>(EMPLOYEES * schedulesPerEmployee);
+        long id = 1;
+        for (int k = 0; k < schedulesPerEmployee; k++) {
+            for (long employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+                LocalDateTime start = base.plusHours(k);
+                Schedule schedule = new Schedule(employeeId, employeeId * 1000 + k % 50, start, start.plusMinutes(30),
+                        null, k % 10 == 0);
+                schedule.setId(id++);
+                schedules.add(schedule);
+            }
+        }
+        conflictIndex = new ScheduleConflictIndex(repositoryReturning(schedules), new ScheduleResourceProperties(),
+                new LocalScheduleInvalidationBus(), true, true, false, 30, 200);
+        conflictIndex.warmUp();
+        if (!conflictIndex.isReady()) {
+            throw new IllegalStateException("Conflict index did not load");
+        }
+    }
+
+    // Solo se implementa la consulta de carga del índice; cualquier otra llamada indicaría un fallback a SQL
+    private static ScheduleRepository repositoryReturning(List<Schedule> schedules) {
+        return (ScheduleRepository) Proxy.newProxyInstance(ScheduleRepository.class.getClassLoader(),
+                new Class<?>[]{ScheduleRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByEndAtGreaterThanEqual")) {
+                        return Flux.fromIterable(schedules);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public Long employeeOverlapBusySlot() {
+        long employeeId = ThreadLocalRandom.current().nextLong(1, EMPLOYEES + 1);
+        LocalDateTime start = base.plusHours(ThreadLocalRandom.current().nextInt(schedulesPerEmployee)).plusMinutes(10);
+        return conflictIndex.countEmployeeOverlaps(employeeId, start, start.plusMinutes(30), null).block();
+    }
+
+    @Benchmark
+    public Long employeeOverlapFreeSlot() {
+        long employeeId = ThreadLocalRandom.current().nextLong(1, EMPLOYEES + 1);
+        LocalDateTime start = base.plusHours(ThreadLocalRandom.current().nextInt(schedulesPerEmployee)).plusMinutes(30);
+        return conflictIndex.countEmployeeOverlaps(employeeId, start, start.plusMinutes(30), null).block();
+    }
+
+    @Benchmark
+    public Long userOverlap() {
+        int k = ThreadLocalRandom.current().nextInt(schedulesPerEmployee);
+        long userId = ThreadLocalRandom.current().nextLong(1, EMPLOYEES + 1) * 1000 + k % 50;
+        LocalDateTime start = base.plusHours(k);
+        return conflictIndex.countUserOverlaps(userId, start, start.plusMinutes(30), null).block();
+    }
+
+    // Todas las dimensiones en una pasada, como en ScheduleService al crear una cita individual
+    @Benchmark
+    public Set<ConflictDimension> allResources() {
+        int k = ThreadLocalRandom.current().nextInt(schedulesPerEmployee);
+        long employeeId = ThreadLocalRandom.current().nextLong(1, EMPLOYEES + 1);
+        LocalDateTime start = base.plusHours(k).plusMinutes(10);
+        Schedule candidate = new Schedule(employeeId, employeeId * 1000 + k % 50, start, start.plusMinutes(30),
+                null, false);
+        return conflictIndex.findConflicts(candidate, null, EnumSet.allOf(ConflictDimension.class)).block();
+    }
+}
@@ -0,0 +1,206 @@
+package com.reactive.nexo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reactive.nexo.dto.CountMode;
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.dto.ScheduleCursor;
+import com.reactive.nexo.service.ScheduleService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Prueba de estrés del pool de conexiones: un pool deliberadamente pequeño (--poolSize) y un max-acquire-time
+// corto (--acquireTimeout), a concurrencias crecientes, con las operaciones que agrupan consultas independientes
+// en ScheduleConnectionScope (--operations): páginas con conteo estimado o sin conteo, páginas por cursor y
+// reservas que pasan por la validación de solapamientos (siempre solapan una cita sembrada, así que terminan en
+// 409 y la tabla no crece). La página con conteo exacto no se incluye: es una sola sentencia. Se ejecuta con
+// pipelining activado y desactivado para comparar cuándo empiezan a encolarse las adquisiciones: por nivel
+// informa rendimiento, p50/p99, rechazos 409, errores por tipo (los TimeoutException son adquisiciones que
+// agotaron la espera) y el máximo de adquisiciones pendientes muestreado cada 5 ms
+public final class PoolSaturationRunner {
+
+    private static final int PAGE_SIZE = 20;
+
+    enum Operation {
+        ESTIMATE, NONE, CURSOR, CREATE
+    }
+
+    private PoolSaturationRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "200000"));
+        int employees = Integer.parseInt(options.getOrDefault("employees", "200"));
+        int poolSize = Integer.parseInt(options.getOrDefault("poolSize", "4"));
+        Duration acquireTimeout = Duration.parse("PT" + options.getOrDefault("acquireTimeout", "0.5S"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "2000"));
+        int[] concurrency = Arrays.stream(options.getOrDefault("concurrency", "1,4,16,64,256").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Operation[] operations = Arrays.stream(options.getOrDefault("operations", "estimate,none,cursor,create").split(","))
+                .map(name -> Operation.valueOf(name.trim().toUpperCase()))
+                .toArray(Operation[]::new);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (boolean pipelining : new boolean[]{true, false}) {
+            String mode = pipelining ? "pipelining" : "connectionPerQuery";
+            System.out.printf("%n%s (pool %d, max-acquire-time %d ms)%n", mode, poolSize, acquireTimeout.toMillis());
+            System.out.printf("%11s %10s %9s %9s %9s %9s %9s%n",
+                    "concurrency", "req/s", "p50 ms", "p99 ms", "409", "errors", "pending");
+            try (BenchmarkContext context = BenchmarkContext.start(rows, employees, rows / 20,
+                    "spring.r2dbc.pool.initial-size=" + poolSize,
+                    "spring.r2dbc.pool.max-size=" + poolSize,
+                    "spring.r2dbc.pool.min-idle=" + poolSize,
+                    "spring.r2dbc.pool.max-acquire-time=" + acquireTimeout.toMillis() + "ms",
+                    "schedule.r2dbc.pipelining=" + pipelining,
+                    // Cada petición tiene que llegar a la base de datos aunque coincida con otra
+                    "schedule.single-flight.enabled=false")) {
+                ConnectionPool pool = (ConnectionPool) context.getBean(ConnectionFactory.class);
+                ScheduleService scheduleService = context.getBean(ScheduleService.class);
+                long hours = rows / employees;
+                // Calentamiento: compila las consultas y abre todas las conexiones del pool
+                level(scheduleService, pool, operations, hours, poolSize, requests / 4);
+                List<Map<String, Object>> levels = new ArrayList<>();
+                for (int level : concurrency) {
+                    Map<String, Object> row = level(scheduleService, pool, operations, hours, level, requests);
+                    System.out.printf("%11d %10.1f %9.2f %9.2f %9d %9d %9d%n", level, row.get("throughput"),
+                            row.get("p50Ms"), row.get("p99Ms"), row.get("rejected"), row.get("errors"),
+                            row.get("peakPendingAcquires"));
+                    levels.add(row);
+                }
+                report.put(mode, levels);
+            }
+        }
+
+        if (options.containsKey("report")) {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(Path.of(options.get("report")).toFile(), report);
+        }
+    }
+
+    private static Map<String, Object> level(ScheduleService scheduleService, ConnectionPool pool,
+                                             Operation[] operations, long hours, int concurrency, int requests) {
+        long[] latencies = new long[requests];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicLong rejected = new AtomicLong();
+        Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        AtomicInteger peakPending = new AtomicInteger();
+        Disposable sampler = Flux.interval(Duration.ofMillis(5))
+                .subscribe(tick -> pool.getMetrics()
+                        .ifPresent(metrics -> peakPending.accumulateAndGet(metrics.pendingAcquireSize(), Math::max)));
+
+        long started = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> execute(scheduleService, operations[i % operations.length], hours)
+                        .doOnNext(latency -> latencies[recorded.getAndIncrement()] = latency)
+                        .onErrorResume(e -> {
+                            if (e instanceof ResponseStatusException status
+                                    && status.getStatusCode() == HttpStatus.CONFLICT) {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            }
+                            errors.computeIfAbsent(rootCause(e).getClass().getSimpleName(), key -> new AtomicLong())
+                                    .incrementAndGet();
+                            return Mono.empty();
+                        })
+                        .then(), concurrency)
+                .blockLast();
+        long elapsed = System.nanoTime() - started;
+        sampler.dispose();
+
+        long[] sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+        long failed = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        Map<String, Long> errorsByType = new LinkedHashMap<>();
+        errors.forEach((type, count) -> errorsByType.put(type, count.get()));
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("concurrency", concurrency);
+        row.put("requests", requests);
+        row.put("throughput", requests / (elapsed / 1e9));
+        row.put("p50Ms", percentile(sorted, 0.50) / 1e6);
+        row.put("p99Ms", percentile(sorted, 0.99) / 1e6);
+        row.put("rejected", rejected.get());
+        row.put("errors", failed);
+        row.put("errorsByType", errorsByType);
+        row.put("peakPendingAcquires", peakPending.get());
+        return row;
+    }
+
+    // Devuelve la latencia de la operación en nanosegundos; las reservas rechazadas terminan en error 409
+    private static Mono<Long> execute(ScheduleService scheduleService, Operation operation, long hours) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long k = ThreadLocalRandom.current().nextLong(1, Math.max(2, hours));
+            LocalDateTime from = BenchmarkContext.slot(k);
+            Mono<?> result = switch (operation) {
+                // Con ventana el conteo estimado es un COUNT aparte: página y conteo en paralelo
+                case ESTIMATE -> scheduleService.getAllSchedules(0, PAGE_SIZE, from, from.plusDays(1), null,
+                        CountMode.ESTIMATE);
+                case NONE -> scheduleService.getAllSchedules(0, PAGE_SIZE, from, from.plusDays(1), null,
+                        CountMode.NONE);
+                case CURSOR -> scheduleService.getAllSchedules(0, PAGE_SIZE, from, from.plusDays(1),
+                        new ScheduleCursor(from, 0L).encode(), CountMode.ESTIMATE);
+                case CREATE -> scheduleService.createSchedule(overlappingRequest(k));
+            };
+            return result.then(Mono.fromSupplier(() -> System.nanoTime() - start));
+        });
+    }
+
+    // Solapa la cita sembrada del empleado 1 en la hora k: recorre cerrojos, índice y series y se rechaza
+    private static CreateScheduleRequest overlappingRequest(long k) {
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setEmployeeId(1L);
+        request.setUserId(ThreadLocalRandom.current().nextLong(1, 1_000_000));
+        request.setStartAt(BenchmarkContext.slot(k).plusMinutes(15));
+        request.setEndAt(BenchmarkContext.slot(k).plusMinutes(45));
+        return request;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,95 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.dto.CountMode;
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.dto.PagedResponse;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.service.ScheduleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ScheduleService dentro de la aplicación completa sobre H2: paginación por desplazamiento y por cursor a
+// distintas profundidades, y la validación de solapamiento de una reserva que siempre se rechaza
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScheduleServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int employees;
+
+    @Param({"0", "100", "10000"})
+    public int pageDepth;
+
+    private BenchmarkContext context;
+    private ScheduleService scheduleService;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows, employees, rows / 20);
+        scheduleService = context.getBean(ScheduleService.class);
+        // Cursor equivalente a la página pageDepth: el nextCursor de la página anterior
+        cursor = pageDepth == 0 ? null : scheduleService
+                .getAllSchedules(pageDepth - 1, PAGE_SIZE, null, null, null, CountMode.NONE)
+                .map(PagedResponse::getNextCursor)
+                .block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PagedResponse<Schedule> offsetPageExactCount() {
+        return scheduleService.getAllSchedules(pageDepth, PAGE_SIZE, null, null, null, CountMode.EXACT).block();
+    }
+
+    @Benchmark
+    public PagedResponse<Schedule> offsetPageWithoutCount() {
+        return scheduleService.getAllSchedules(pageDepth, PAGE_SIZE, null, null, null, CountMode.NONE).block();
+    }
+
+    @Benchmark
+    public PagedResponse<Schedule> cursorPage() {
+        return scheduleService.getAllSchedules(0, PAGE_SIZE, null, null, cursor, CountMode.NONE).block();
+    }
+
+    // Cerrojos + índice + series: la reserva solapa siempre una cita sembrada y no llega a insertarse
+    @Benchmark
+    public Object rejectOverlappingCreate() {
+        long k = ThreadLocalRandom.current().nextLong(1, rows / employees);
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setEmployeeId(1L);
+        request.setUserId(ThreadLocalRandom.current().nextLong(1, 1_000_000));
+        request.setStartAt(BenchmarkContext.slot(k).plusMinutes(15));
+        request.setEndAt(BenchmarkContext.slot(k).plusMinutes(45));
+        return scheduleService.createSchedule(request)
+                .cast(Object.class)
+                .onErrorResume(e -> Mono.just(e))
+                .block();
+    }
+}
@@ -0,0 +1,84 @@
+package com.reactive.nexo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.reactive.nexo.dto.PagedResponse;
+import com.reactive.nexo.dto.ScheduleCursor;
+import com.reactive.nexo.model.Schedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización JSON de las respuestas con un ObjectMapper configurado como el de Spring Boot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ObjectWriter scheduleWriter;
+    private ObjectWriter pageWriter;
+    private ObjectMapper objectMapper;
+    private Schedule schedule;
+    private PagedResponse<Schedule> page;
+    private byte[] scheduleJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        scheduleWriter = objectMapper.writerFor(Schedule.class);
+        pageWriter = objectMapper.writerFor(PagedResponse.class);
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 8, 0);
+        List<Schedule> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Schedule item = new Schedule(i % 20 + 1L, i + 1L, base.plusMinutes(30L * i), base.plusMinutes(30L * i + 30),
+                    "Consulta general", "Sede Central", "Oficina 101", i % 2 == 0, i % 5 == 0);
+            item.setId(i + 1L);
+            item.setCreatedAt(base.minusDays(3));
+            item.setUpdatedAt(base.minusDays(1));
+            content.add(item);
+        }
+        schedule = content.get(0);
+        Schedule last = content.get(content.size() - 1);
+        page = new PagedResponse<>(content, 3, pageSize, 1_000_000L, 1_000_000L / pageSize, false,
+                new ScheduleCursor(last.getStartAt(), last.getId()).encode());
+        scheduleJson = scheduleWriter.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public byte[] writeSchedule() throws JsonProcessingException {
+        return scheduleWriter.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Schedule readSchedule() throws IOException {
+        return objectMapper.readValue(scheduleJson, Schedule.class);
+    }
+}
@@ -0,0 +1,132 @@
+package com.reactive.nexo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Arranque en frío del servicio en procesos nuevos, como un pod recién creado: el JAR ejecutable normal frente al
+// de target/fast-start (AOT + archivo CDS, mvn -Pfast-start package). Cada ejecución toma el tiempo que informa
+// Spring Boot al terminar de arrancar incluida la JVM ("process running for") y se comparan las medianas. Con
+// --budgetMs termina con código 1 si el arranque rápido lo supera, para detectar regresiones en CI
+public final class StartupTimeRunner {
+
+    private static final Pattern STARTED =
+            Pattern.compile("Started \\S+ in [0-9.]+ seconds \\(process running for ([0-9.]+)\\)");
+
+    private StartupTimeRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path target = Path.of(options.getOrDefault("target", "target"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Long budgetMs = options.containsKey("budgetMs") ? Long.parseLong(options.get("budgetMs")) : null;
+        Path fastStart = target.resolve("fast-start");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<String> executable = new ArrayList<>(List.of(java, "-jar", find(target, "*-SNAPSHOT.jar").toString()));
+        executable.addAll(applicationArguments());
+        List<String> fast = new ArrayList<>(List.of(java,
+                "-XX:SharedArchiveFile=" + fastStart.resolve("schedule.jsa"),
+                "-Dspring.aot.enabled=true",
+                "-jar", find(fastStart, "*-fast-start.jar").toString()));
+        fast.addAll(applicationArguments());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        long executableMedian = median(measure(executable, runs));
+        long fastMedian = median(measure(fast, runs));
+        report.put("executableJarMs", executableMedian);
+        report.put("fastStartMs", fastMedian);
+        report.put("runs", runs);
+        System.out.printf("Executable JAR: %d ms, fast-start (AOT + CDS): %d ms, median of %d runs%n",
+                executableMedian, fastMedian, runs);
+
+        if (options.containsKey("report")) {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(Path.of(options.get("report")).toFile(), report);
+        }
+        if (budgetMs != null && fastMedian > budgetMs) {
+            System.err.printf("Fast-start median %d ms exceeds the budget of %d ms%n", fastMedian, budgetMs);
+            System.exit(1);
+        }
+    }
+
+    // Perfil prod sobre H2 en memoria y puerto aleatorio: mide el arranque sin depender de PostgreSQL
+    private static List<String> applicationArguments() {
+        return List.of("--spring.profiles.active=prod",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///startup",
+                "--server.port=0");
+    }
+
+    private static long[] measure(List<String> command, int runs) throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = startOnce(command);
+        }
+        return millis;
+    }
+
+    // Lee la salida hasta la línea de arranque y detiene el proceso
+    private static long startOnce(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    return Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+                }
+            }
+            throw new IllegalStateException("Application exited before starting: " + String.join(" ", command));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Path find(Path directory, String glob) throws IOException {
+        try (DirectoryStream<Path> matches = Files.newDirectoryStream(directory, glob)) {
+            for (Path match : matches) {
+                return match;
+            }
+        }
+        throw new IllegalStateException("No " + glob + " in " + directory + "; run mvn -Pfast-start package first");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,119 @@
+package com.reactive.nexo.benchmarks;
+
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Peticiones HTTP reales contra la aplicación arrancada en un puerto aleatorio: códec JSON, enrutado de
+// WebFlux, servicio y R2DBC. Cada operación devuelve el tamaño del cuerpo para que no se descarte
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class WebFluxEndToEndBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int employees;
+
+    private BenchmarkContext context;
+    private WebClient client;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows, employees, rows / 20);
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + context.port() + "/api/v1/schedule")
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer firstPage() {
+        return body("?page=0&size=20");
+    }
+
+    @Benchmark
+    public Integer deepOffsetPage() {
+        return body("?page=" + ThreadLocalRandom.current().nextInt(5_000, 10_000) + "&size=20&countMode=none");
+    }
+
+    @Benchmark
+    public Integer scheduleById() {
+        return body("/" + ThreadLocalRandom.current().nextLong(1, rows));
+    }
+
+    @Benchmark
+    public Integer employeeWeek() {
+        long employeeId = ThreadLocalRandom.current().nextLong(1, employees + 1);
+        LocalDateTime from = BenchmarkContext.slot(24L * ThreadLocalRandom.current().nextInt(1, 30));
+        return body("/employee/" + employeeId + "?from=" + from + "&to=" + from.plusDays(7));
+    }
+
+    @Benchmark
+    public Integer employeeWeekNdjson() {
+        long employeeId = ThreadLocalRandom.current().nextLong(1, employees + 1);
+        LocalDateTime from = BenchmarkContext.slot(24L * ThreadLocalRandom.current().nextInt(1, 30));
+        return client.get()
+                .uri("/employee/" + employeeId + "?from=" + from + "&to=" + from.plusDays(7))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(String.class)
+                .map(String::length)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    // Siempre 409: mide validación, cerrojos y serialización del error sin hacer crecer la tabla
+    @Benchmark
+    public Integer rejectedCreate() {
+        long k = ThreadLocalRandom.current().nextLong(1, rows / employees);
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setEmployeeId(1L);
+        request.setUserId(ThreadLocalRandom.current().nextLong(1, 1_000_000));
+        request.setStartAt(BenchmarkContext.slot(k).plusMinutes(15));
+        request.setEndAt(BenchmarkContext.slot(k).plusMinutes(45));
+        return client.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .block();
+    }
+
+    private Integer body(String uri) {
+        return client.get()
+                .uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(String::length)
+                .block();
+    }
+}
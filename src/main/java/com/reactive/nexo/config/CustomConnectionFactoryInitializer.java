@@ -1,22 +1,79 @@
 package com.reactive.nexo.config;
 
 import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
 @Configuration
 public class CustomConnectionFactoryInitializer {
+
+    // versioned: solo si los scripts cambiaron desde la última ejecución; always: en cada arranque;
+    // skip: nunca, la migración la hace un paso previo del despliegue (otro proceso con versioned o always)
+    public enum SchemaMode {
+        VERSIONED, ALWAYS, SKIP
+    }
+
+    // Los bloques DO contienen ';': cada sentencia del script de PostgreSQL termina en una línea ';;' y se
+    // ejecuta por separado, así que la conversión del archivo no depende de que se creen las restricciones
+    private static final String POSTGRES_SEPARATOR = ";;";
+
     @Bean
-    public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
+    public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory,
+                                                    @Value("${schedule.schema.mode:versioned}") SchemaMode mode) {
         ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
         initializer.setConnectionFactory(connectionFactory);
+        if (mode == SchemaMode.SKIP) {
+            initializer.setEnabled(false);
+            return initializer;
+        }
+        List<Resource> scripts = new ArrayList<>();
         CompositeDatabasePopulator populator = new CompositeDatabasePopulator();
-        populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("db/migration/schema.sql")));
-        initializer.setDatabasePopulator(populator);
+        Resource schema = new ClassPathResource("db/migration/schema.sql");
+        scripts.add(schema);
+        populator.addPopulators(new ResourceDatabasePopulator(schema));
+        if (connectionFactory.getMetadata().getName().contains("PostgreSQL")) {
+            Resource postgresSchema = new ClassPathResource("db/migration/schema-postgresql.sql");
+            scripts.add(postgresSchema);
+            ResourceDatabasePopulator postgresPopulator = new ResourceDatabasePopulator(postgresSchema);
+            postgresPopulator.setSeparator(POSTGRES_SEPARATOR);
+            // Los solapes heredados que impiden crear una restricción se capturan en su bloque DO (WARNING con
+            // los ids); cualquier otro error detiene el arranque
+            populator.addPopulators(postgresPopulator);
+        }
+        initializer.setDatabasePopulator(mode == SchemaMode.VERSIONED
+                ? new VersionedSchemaPopulator(populator, checksum(scripts))
+                : populator);
         return initializer;
     }
-}
\ No newline at end of file
+
+    private static String checksum(List<Resource> scripts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource script : scripts) {
+                try (InputStream in = script.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema scripts", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
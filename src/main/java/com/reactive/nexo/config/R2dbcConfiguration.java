@@ -0,0 +1,54 @@
+package com.reactive.nexo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Ajustes del driver y del pool que no cubren las propiedades spring.r2dbc.pool.* (ver application.yml)
+@Configuration
+public class R2dbcConfiguration {
+
+    public static final String POOL_SATURATION_GAUGE = "schedule.pool.saturation";
+
+    private static final Option<Integer> PREPARED_STATEMENT_CACHE_QUERIES = Option.valueOf("preparedStatementCacheQueries");
+
+    // Sentencias preparadas que r2dbc-postgresql conserva por conexión (0 desactiva la caché, -1 sin límite).
+    // Las consultas de los repositorios son fijas, así que un límite acotado basta para que cada una se
+    // prepare una vez por conexión. H2 no reconoce la opción y no se le pasa
+    @Bean
+    public ConnectionFactoryOptionsBuilderCustomizer postgresStatementCache(
+            @Value("${spring.r2dbc.url:}") String url,
+            @Value("${schedule.r2dbc.prepared-statement-cache-queries:256}") int cacheQueries) {
+        return builder -> {
+            if (url.contains(":postgresql:")) {
+                builder.option(PREPARED_STATEMENT_CACHE_QUERIES, cacheQueries);
+            }
+        };
+    }
+
+    // (adquiridas + esperando) / máximo del pool: por encima de 1 hay peticiones encoladas esperando conexión.
+    // Complementa a r2dbc.pool.*, que da cada valor por separado
+    @Bean
+    public MeterBinder poolSaturation(ConnectionFactory connectionFactory) {
+        return registry -> {
+            if (connectionFactory instanceof ConnectionPool pool) {
+                Gauge.builder(POOL_SATURATION_GAUGE, pool, R2dbcConfiguration::saturation)
+                        .description("Connections in use plus pending acquires, relative to the pool maximum")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double saturation(ConnectionPool pool) {
+        return pool.getMetrics()
+                .map(metrics -> (metrics.acquiredSize() + metrics.pendingAcquireSize())
+                        / (double) Math.max(1, metrics.getMaxAllocatedSize()))
+                .orElse(0.0);
+    }
+}
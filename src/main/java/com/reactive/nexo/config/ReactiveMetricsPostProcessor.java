@@ -0,0 +1,64 @@
+package com.reactive.nexo.config;
+
+import com.reactive.nexo.service.ScheduleMetrics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Mide los métodos reactivos de los servicios de la aplicación y de los repositorios de Spring Data desde la
+// suscripción hasta la señal de fin; el tiempo de invocación del método no incluiría la consulta
+@Component
+public class ReactiveMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String BASE_PACKAGE = "com.reactive.nexo";
+
+    private final ObjectProvider<ScheduleMetrics> metrics;
+
+    public ReactiveMetricsPostProcessor(ObjectProvider<ScheduleMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository<?, ?> && bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(timingInterceptor(method -> metrics.getObject().repository(beanName, method.getName())));
+            return bean;
+        }
+        Class<?> type = AopUtils.getTargetClass(bean);
+        if (type.getPackageName().startsWith(BASE_PACKAGE) && AnnotationUtils.findAnnotation(type, Service.class) != null) {
+            String service = type.getSimpleName();
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(timingInterceptor(method -> metrics.getObject().service(service, method.getName())));
+            return proxyFactory.getProxy(type.getClassLoader());
+        }
+        return bean;
+    }
+
+    // Los medidores se resuelven una vez por método; en cada llamada solo se busca por la clave Method
+    private MethodInterceptor timingInterceptor(Function<Method, ScheduleMetrics.Operation> operationFactory) {
+        Map<Method, ScheduleMetrics.Operation> operations = new ConcurrentHashMap<>();
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (!(result instanceof Mono<?>) && !(result instanceof Flux<?>)) {
+                return result;
+            }
+            ScheduleMetrics.Operation operation = operations.computeIfAbsent(invocation.getMethod(), operationFactory);
+            return result instanceof Mono<?> mono ? operation.time(mono) : operation.time((Flux<?>) result);
+        };
+    }
+}
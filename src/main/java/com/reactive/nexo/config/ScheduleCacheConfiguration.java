@@ -0,0 +1,18 @@
+package com.reactive.nexo.config;
+
+import com.reactive.nexo.service.LocalScheduleInvalidationBus;
+import com.reactive.nexo.service.ScheduleInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ScheduleCacheConfiguration {
+
+    // Con varios nodos se declara otro ScheduleInvalidationBus (con clusterWide() a true) que reemplaza a este
+    @Bean
+    @ConditionalOnMissingBean(ScheduleInvalidationBus.class)
+    public ScheduleInvalidationBus scheduleInvalidationBus() {
+        return new LocalScheduleInvalidationBus();
+    }
+}
@@ -0,0 +1,18 @@
+package com.reactive.nexo.config;
+
+import com.reactive.nexo.service.LocalScheduleEventPublisher;
+import com.reactive.nexo.service.ScheduleEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ScheduleOutboxConfiguration {
+
+    // Para enviar los eventos a un broker basta con declarar otro ScheduleEventPublisher
+    @Bean
+    @ConditionalOnMissingBean(ScheduleEventPublisher.class)
+    public ScheduleEventPublisher scheduleEventPublisher() {
+        return new LocalScheduleEventPublisher();
+    }
+}
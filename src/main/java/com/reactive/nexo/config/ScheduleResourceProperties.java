@@ -0,0 +1,33 @@
+package com.reactive.nexo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Restricciones de recursos por sede (schedule.resources). Solo afectan a citas presenciales con sede; las
+// sedes sin entrada propia usan 'defaults'
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "schedule.resources")
+public class ScheduleResourceProperties {
+
+    private Rules defaults = new Rules();
+    // Clave: nombre de la sede tal como se guarda en la cita
+    private Map<String, Rules> headquarters = new HashMap<>();
+
+    public Rules forHeadquarters(String name) {
+        Rules rules = headquarters.get(name);
+        return rules != null ? rules : defaults;
+    }
+
+    @Data
+    public static class Rules {
+        // Una oficina admite una sola cita presencial a la vez, salvo los asistentes de una misma sesión grupal
+        private boolean officeExclusive = true;
+        // Máximo de citas presenciales simultáneas en la sede; sin valor no hay límite
+        private Integer capacity;
+    }
+}
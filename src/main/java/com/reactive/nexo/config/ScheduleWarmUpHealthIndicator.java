@@ -0,0 +1,56 @@
+package com.reactive.nexo.config;
+
+import com.reactive.nexo.service.ScheduleConflictIndex;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Forma parte del grupo readiness: un pod nuevo no recibe tráfico hasta que el pool tiene abiertas sus
+// conexiones iniciales y el índice de conflictos terminó de cargar (si la carga falla, las validaciones usan
+// SQL y el pod también queda listo). El pool se calienta en cuanto se refresca el contexto, en paralelo con
+// los CommandLineRunner y la carga del índice
+@Component("scheduleWarmUp")
+@Slf4j
+public class ScheduleWarmUpHealthIndicator implements ReactiveHealthIndicator {
+
+    private final ConnectionFactory connectionFactory;
+    private final ScheduleConflictIndex conflictIndex;
+    private volatile boolean poolWarm;
+
+    public ScheduleWarmUpHealthIndicator(ConnectionFactory connectionFactory, ScheduleConflictIndex conflictIndex) {
+        this.connectionFactory = connectionFactory;
+        this.conflictIndex = conflictIndex;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUpPool() {
+        if (!(connectionFactory instanceof ConnectionPool pool)) {
+            poolWarm = true;
+            return;
+        }
+        pool.warmup().subscribe(
+                opened -> log.info("Connection pool warmed up, {} connections opened", opened),
+                e -> {
+                    poolWarm = true;
+                    log.warn("Connection pool warm-up failed, connections will open on demand: {}", e.getMessage());
+                },
+                () -> poolWarm = true);
+    }
+
+    @Override
+    public Mono<Health> health() {
+        return Mono.fromSupplier(() -> {
+            boolean indexLoading = conflictIndex.isLoading();
+            Health.Builder health = poolWarm && !indexLoading ? Health.up() : Health.outOfService();
+            return health.withDetail("connectionPool", poolWarm ? "warm" : "warming up")
+                    .withDetail("conflictIndex", indexLoading ? "loading" : conflictIndex.isReady() ? "loaded" : "sql")
+                    .build();
+        });
+    }
+}
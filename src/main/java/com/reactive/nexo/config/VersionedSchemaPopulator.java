@@ -0,0 +1,58 @@
+package com.reactive.nexo.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Result;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Ejecuta los scripts de esquema solo si cambiaron: guarda el checksum de su contenido en
+// schedule_schema_version y, si ya está registrado, el arranque se reduce a una consulta. Dos nodos que migran
+// a la vez ejecutan los mismos scripts idempotentes y el segundo registro se descarta. El checksum se registra
+// en cuanto los scripts terminan, aunque alguna restricción de exclusión no se haya podido crear por solapes
+// heredados: eso lo informa ScheduleConstraintsHealthIndicator, y volver a ejecutar los scripts no lo arreglaría
+@Slf4j
+final class VersionedSchemaPopulator implements DatabasePopulator {
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schedule_schema_version (" +
+            "checksum VARCHAR(64) PRIMARY KEY, applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private final DatabasePopulator delegate;
+    // SHA-256 en hexadecimal: solo contiene [0-9a-f] y se puede incluir literal en la sentencia
+    private final String checksum;
+
+    VersionedSchemaPopulator(DatabasePopulator delegate, String checksum) {
+        this.delegate = delegate;
+        this.checksum = checksum;
+    }
+
+    @Override
+    public Mono<Void> populate(Connection connection) {
+        return execute(connection, CREATE_VERSION_TABLE)
+                .then(Flux.from(connection.createStatement(
+                                        "SELECT COUNT(*) FROM schedule_schema_version WHERE checksum = '" + checksum + "'")
+                                .execute())
+                        .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                        .next())
+                .flatMap(applied -> {
+                    if (applied > 0) {
+                        log.info("Schema version {} already applied, skipping schema scripts", checksum.substring(0, 12));
+                        return Mono.empty();
+                    }
+                    return delegate.populate(connection)
+                            .then(execute(connection,
+                                    "INSERT INTO schedule_schema_version (checksum) VALUES ('" + checksum + "')")
+                                    .onErrorResume(R2dbcDataIntegrityViolationException.class, e -> Mono.just(0L)))
+                            .doOnSuccess(inserted -> log.info("Applied schema version {}", checksum.substring(0, 12)))
+                            .then();
+                });
+    }
+
+    private static Mono<Long> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(Result::getRowsUpdated)
+                .reduce(0L, Long::sum);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reactive.nexo.controller;
+
+import com.reactive.nexo.model.GroupSession;
+import com.reactive.nexo.model.GroupSessionAttendee;
+import com.reactive.nexo.service.GroupSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/schedule/group-sessions")
+@RequiredArgsConstructor
+@Tag(name = "Group Sessions", description = "API para el aforo y los asistentes de sesiones grupales")
+public class GroupSessionController {
+
+    private final GroupSessionService groupSessionService;
+
+    @Operation(
+        summary = "Obtener sesión grupal por ID",
+        description = "Devuelve la sesión con su aforo y el número de asistentes inscritos. Las sesiones se crean al " +
+                     "reservar la primera cita con groupSession=true y se eliminan al salir el último asistente"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sesión encontrada"),
+        @ApiResponse(responseCode = "404", description = "Sesión no encontrada")
+    })
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<GroupSession>> getGroupSessionById(
+            @Parameter(description = "ID de la sesión grupal", required = true)
+            @PathVariable Long id) {
+        return groupSessionService.getById(id)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Obtener asistentes", description = "Devuelve los asistentes de la sesión con el ID de su cita")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Asistentes obtenidos exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Sesión no encontrada")
+    })
+    @GetMapping("/{id}/attendees")
+    public Flux<GroupSessionAttendee> getAttendees(
+            @Parameter(description = "ID de la sesión grupal", required = true)
+            @PathVariable Long id) {
+        return groupSessionService.getAttendees(id);
+    }
+
+    @Operation(
+        summary = "Cambiar aforo",
+        description = "Modifica el número máximo de asistentes; no puede quedar por debajo de los ya inscritos"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Aforo actualizado exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Aforo inválido"),
+        @ApiResponse(responseCode = "404", description = "Sesión no encontrada"),
+        @ApiResponse(responseCode = "409", description = "El aforo es menor que el número de asistentes")
+    })
+    @PutMapping("/{id}/capacity")
+    public Mono<ResponseEntity<GroupSession>> updateCapacity(
+            @Parameter(description = "ID de la sesión grupal", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Nuevo aforo", required = true, example = "30")
+            @RequestParam Integer capacity) {
+        return groupSessionService.updateCapacity(id, capacity)
+                .map(ResponseEntity::ok);
+    }
+}
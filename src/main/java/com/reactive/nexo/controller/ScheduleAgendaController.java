@@ -0,0 +1,69 @@
+package com.reactive.nexo.controller;
+
+import com.reactive.nexo.dto.AgendaDayView;
+import com.reactive.nexo.service.ScheduleAgendaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/schedule/agenda")
+@RequiredArgsConstructor
+@Tag(name = "Schedule Agenda", description = "API de agendas diarias precalculadas por empleado, sede u oficina")
+public class ScheduleAgendaController {
+
+    private final ScheduleAgendaService scheduleAgendaService;
+
+    @Operation(
+        summary = "Agenda de un empleado",
+        description = "Devuelve un elemento por día desde 'date' con las citas del empleado ya precalculadas " +
+                     "(una consulta por índice), incluidas las ocurrencias de series recurrentes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Agenda obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Fecha o número de días inválidos")
+    })
+    @GetMapping(value = "/employee/{employeeId}",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AgendaDayView> getEmployeeAgenda(
+            @Parameter(description = "ID del empleado", required = true)
+            @PathVariable Long employeeId,
+            @Parameter(description = "Primer día (ISO)", required = true, example = "2025-01-13")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "Número de días (7 para una semana)", example = "1")
+            @RequestParam(defaultValue = "1") int days) {
+        return scheduleAgendaService.getEmployeeAgenda(employeeId, date, days);
+    }
+
+    @Operation(
+        summary = "Agenda de una sede u oficina",
+        description = "Devuelve un elemento por día desde 'date' con las citas de la sede, o solo de la oficina si " +
+                     "se indica, ya precalculadas, incluidas las ocurrencias de series recurrentes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Agenda obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Sede, fecha o número de días inválidos")
+    })
+    @GetMapping(value = "/headquarters",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AgendaDayView> getHeadquartersAgenda(
+            @Parameter(description = "Sede", required = true, example = "Sede Central")
+            @RequestParam String headquarters,
+            @Parameter(description = "Oficina dentro de la sede", example = "Oficina 101")
+            @RequestParam(required = false) String office,
+            @Parameter(description = "Primer día (ISO)", required = true, example = "2025-01-13")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "Número de días (7 para una semana)", example = "7")
+            @RequestParam(defaultValue = "1") int days) {
+        return scheduleAgendaService.getHeadquartersAgenda(headquarters, office, date, days);
+    }
+}
@@ -1,9 +1,19 @@
 package com.reactive.nexo.controller;
 
+import com.reactive.nexo.dto.CountMode;
 import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.dto.EmployeeAvailability;
 import com.reactive.nexo.dto.PagedResponse;
+import com.reactive.nexo.dto.PatchScheduleRequest;
+import com.reactive.nexo.dto.ScheduleBatchResult;
+import com.reactive.nexo.dto.ScheduleChangeEvent;
+import com.reactive.nexo.dto.ScheduleView;
 import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.service.ScheduleAvailabilityService;
+import com.reactive.nexo.service.ScheduleBatchService;
+import com.reactive.nexo.service.ScheduleChangeStream;
 import com.reactive.nexo.service.ScheduleService;
+import com.reactive.nexo.service.ScheduleVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,12 +21,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.ZoneId;
+
 @RestController
 @RequestMapping("/api/v1/schedule")
 @RequiredArgsConstructor
@@ -24,16 +38,24 @@ import reactor.core.publisher.Mono;
 public class ScheduleController {
     
     private final ScheduleService scheduleService;
+    private final ScheduleBatchService scheduleBatchService;
+    private final ScheduleAvailabilityService scheduleAvailabilityService;
+    private final ScheduleChangeStream scheduleChangeStream;
+    private final ScheduleVersions scheduleVersions;
+
+    private static final String VIEW_DESCRIPTION = "Columnas de cada cita: full (entidad completa) o slot (franja sin " +
+            "'details' ni fechas de auditoría, que tampoco se leen de la base de datos)";
     
     @Operation(
         summary = "Obtener todas las citas",
-        description = "Devuelve una lista paginada de todas las citas del sistema"
+        description = "Devuelve una lista paginada de todas las citas del sistema ordenadas por inicio. " +
+                     "Admite paginación por página/tamaño o por cursor (nextCursor) para recorridos profundos"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de citas obtenida exitosamente")
     })
         @GetMapping
-        public Mono<ResponseEntity<PagedResponse<Schedule>>> getAllSchedules(
+        public Mono<ResponseEntity<PagedResponse<Object>>> getAllSchedules(
             @Parameter(description = "Número de página (base 0)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamaño de página", example = "10")
@@ -43,17 +65,26 @@ public class ScheduleController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime startAt,
             @Parameter(description = "Filtra por fecha/hora de fin (ISO)", example = "2025-01-31T23:59:59")
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime endAt) {
-        return scheduleService.getAllSchedules(page, size, startAt, endAt)
-            .map(ResponseEntity::ok);
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime endAt,
+            @Parameter(description = "Cursor opaco (nextCursor de la respuesta anterior); si se envía, se ignora page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Modo de conteo del total: exact, estimate (estadísticas de PostgreSQL) o none", example = "exact")
+            @RequestParam(defaultValue = "exact") String countMode,
+            @Parameter(description = VIEW_DESCRIPTION, example = "full")
+            @RequestParam(defaultValue = "full") String view) {
+        ScheduleView scheduleView = ScheduleView.from(view);
+        return scheduleService.getAllSchedules(page, size, startAt, endAt, cursor, CountMode.from(countMode), scheduleView)
+            .map(result -> ResponseEntity.ok(result.map(scheduleView::render)));
         }
     
     @Operation(
         summary = "Obtener cita por ID",
-        description = "Devuelve una cita específica basada en su ID"
+        description = "Devuelve una cita específica basada en su ID. Incluye ETag (versión de la cita) y Last-Modified; " +
+                     "con If-None-Match o If-Modified-Since vigentes responde 304 sin cuerpo"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cita encontrada"),
+        @ApiResponse(responseCode = "304", description = "La cita no cambió desde la versión indicada"),
         @ApiResponse(responseCode = "404", description = "Cita no encontrada")
     })
     @GetMapping("/{id}")
@@ -61,35 +92,172 @@ public class ScheduleController {
             @Parameter(description = "ID de la cita", required = true)
             @PathVariable Long id) {
         return scheduleService.getScheduleById(id)
-                .map(ResponseEntity::ok);
+                .map(this::conditional);
+    }
+
+    // ResponseEntityResultHandler compara ETag y Last-Modified con la petición y responde 304 sin serializar
+    private ResponseEntity<Schedule> conditional(Schedule schedule) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (schedule.getVersion() != null) {
+            response.eTag("\"" + schedule.getVersion() + '"');
+        }
+        if (schedule.getUpdatedAt() != null) {
+            response.lastModified(schedule.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        }
+        return response.body(schedule);
     }
     
     @Operation(
         summary = "Obtener citas por empleado",
-        description = "Devuelve todas las citas asignadas a un empleado específico"
+        description = "Devuelve las citas asignadas a un empleado específico ordenadas por inicio. " +
+                     "Con Accept: application/x-ndjson las citas se envían a medida que llegan de la base de datos. " +
+                     "Con If-None-Match igual al ETag anterior responde 304 sin leer sus citas si el empleado no tuvo cambios"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de citas del empleado obtenida exitosamente")
+        @ApiResponse(responseCode = "200", description = "Lista de citas del empleado obtenida exitosamente"),
+        @ApiResponse(responseCode = "304", description = "Sin cambios en las citas del empleado desde el ETag indicado"),
+        @ApiResponse(responseCode = "400", description = "Ventana o límite inválidos")
     })
-    @GetMapping("/employee/{employeeId}")
-    public Flux<Schedule> getSchedulesByEmployeeId(
+    @GetMapping(value = "/employee/{employeeId}",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Object>>> getSchedulesByEmployeeId(
             @Parameter(description = "ID del empleado", required = true)
-            @PathVariable Long employeeId) {
-        return scheduleService.getSchedulesByEmployeeId(employeeId);
+            @PathVariable Long employeeId,
+            @Parameter(description = "Inicio de la ventana (ISO); junto con 'to' incluye ocurrencias de series", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @Parameter(description = "Fin de la ventana (ISO)", example = "2025-01-31T23:59:59")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
+            @Parameter(description = "Máximo de citas a devolver, ordenadas por inicio", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Incluir citas archivadas (terminadas hace más de schedule.archive.retention-days)", example = "false")
+            @RequestParam(defaultValue = "false") boolean history,
+            @Parameter(description = VIEW_DESCRIPTION, example = "full")
+            @RequestParam(defaultValue = "full") String view) {
+        ScheduleView scheduleView = ScheduleView.from(view);
+        // El cuerpo es perezoso: con un 304 la consulta nunca se suscribe
+        // La versión se lee antes que el cuerpo, así que el cuerpo nunca es anterior al ETag
+        return scheduleVersions.employeeVersion(employeeId).map(version -> ResponseEntity.ok()
+                .eTag(ScheduleVersions.employeeTag(version))
+                .body(scheduleService.getSchedulesByEmployeeId(employeeId, from, to, limit, history, scheduleView,
+                                version)
+                        .map(scheduleView::render)));
     }
     
     @Operation(
         summary = "Obtener citas por usuario",
-        description = "Devuelve todas las citas de un usuario/paciente específico"
+        description = "Devuelve las citas de un usuario/paciente específico ordenadas por inicio. " +
+                     "Con Accept: application/x-ndjson las citas se envían a medida que llegan de la base de datos. " +
+                     "Con If-None-Match igual al ETag anterior responde 304 sin leer sus citas si el usuario no tuvo cambios"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de citas del usuario obtenida exitosamente")
+        @ApiResponse(responseCode = "200", description = "Lista de citas del usuario obtenida exitosamente"),
+        @ApiResponse(responseCode = "304", description = "Sin cambios en las citas del usuario desde el ETag indicado"),
+        @ApiResponse(responseCode = "400", description = "Ventana o límite inválidos")
     })
-    @GetMapping("/user/{userId}")
-    public Flux<Schedule> getSchedulesByUserId(
+    @GetMapping(value = "/user/{userId}",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Object>>> getSchedulesByUserId(
             @Parameter(description = "ID del usuario/paciente", required = true)
-            @PathVariable Long userId) {
-        return scheduleService.getSchedulesByUserId(userId);
+            @PathVariable Long userId,
+            @Parameter(description = "Inicio de la ventana (ISO); junto con 'to' incluye ocurrencias de series", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @Parameter(description = "Fin de la ventana (ISO)", example = "2025-01-31T23:59:59")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
+            @Parameter(description = "Máximo de citas a devolver, ordenadas por inicio", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Incluir citas archivadas (terminadas hace más de schedule.archive.retention-days)", example = "false")
+            @RequestParam(defaultValue = "false") boolean history,
+            @Parameter(description = VIEW_DESCRIPTION, example = "full")
+            @RequestParam(defaultValue = "full") String view) {
+        ScheduleView scheduleView = ScheduleView.from(view);
+        return scheduleVersions.userVersion(userId).map(version -> ResponseEntity.ok()
+                .eTag(ScheduleVersions.userTag(version))
+                .body(scheduleService.getSchedulesByUserId(userId, from, to, limit, history, scheduleView, version)
+                        .map(scheduleView::render)));
+    }
+    
+    @Operation(
+        summary = "Buscar huecos libres",
+        description = "Devuelve, para cada empleado, los huecos libres consecutivos de la duración pedida dentro de la ventana. " +
+                     "Tiene en cuenta las citas y las ocurrencias de series; la rejilla se alinea a schedule.availability.slot-minutes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Huecos libres obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Ventana, duración o lista de empleados inválida")
+    })
+    @GetMapping("/availability")
+    public Flux<EmployeeAvailability> getAvailability(
+            @Parameter(description = "IDs de los empleados", required = true, example = "1,2,3")
+            @RequestParam java.util.List<Long> employeeIds,
+            @Parameter(description = "Inicio de la ventana (ISO)", required = true, example = "2025-01-01T08:00:00")
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @Parameter(description = "Fin de la ventana (ISO)", required = true, example = "2025-01-01T18:00:00")
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
+            @Parameter(description = "Duración del hueco en minutos", required = true, example = "30")
+            @RequestParam int duration,
+            @Parameter(description = "Máximo de huecos por empleado", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return scheduleAvailabilityService.findAvailability(employeeIds, from, to, duration, limit);
+    }
+    
+    @Operation(
+        summary = "Flujo de cambios (SSE)",
+        description = "Emite las altas, modificaciones y bajas de citas de este nodo como server-sent events, con el " +
+                     "número de secuencia como id. Al reconectar, el navegador envía Last-Event-ID y se recuperan los " +
+                     "eventos perdidos; si ya no están en el búfer se recibe un evento RESET y hay que recargar"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Flujo de eventos abierto"),
+        @ApiResponse(responseCode = "400", description = "Token de reanudación inválido")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ScheduleChangeEvent>> streamChanges(
+            @Parameter(description = "Solo cambios de este empleado (también si la cita salió de él)", example = "1")
+            @RequestParam(required = false) Long employeeId,
+            @Parameter(description = "Solo cambios de esta sede", example = "Sede Central")
+            @RequestParam(required = false) String headquarters,
+            @Parameter(description = "Último 'sequence' recibido; tiene prioridad sobre Last-Event-ID")
+            @RequestParam(required = false) String since,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<ServerSentEvent<ScheduleChangeEvent>> events = scheduleChangeStream
+                .changes(employeeId, headquarters, since != null ? since : lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getSequence().toString())
+                        .event(event.getType().name())
+                        .build());
+        // Comentarios periódicos para que proxies y balanceadores no cierren la conexión inactiva; el marcador
+        // final detiene los latidos cuando el flujo de eventos termina (p. ej. suscriptor lento desconectado)
+        ServerSentEvent<ScheduleChangeEvent> end = ServerSentEvent.<ScheduleChangeEvent>builder().build();
+        Flux<ServerSentEvent<ScheduleChangeEvent>> heartbeats = Flux.interval(scheduleChangeStream.getHeartbeat())
+                .map(tick -> ServerSentEvent.<ScheduleChangeEvent>builder().comment("heartbeat").build());
+        return Flux.merge(events.concatWith(Mono.just(end)), heartbeats)
+                .takeWhile(event -> event != end);
+    }
+    
+    @Operation(
+        summary = "Flujo de cambios (NDJSON)",
+        description = "Los mismos eventos que /changes en formato application/x-ndjson; para reanudar se envía 'since'"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Flujo de eventos abierto"),
+        @ApiResponse(responseCode = "400", description = "Token de reanudación inválido")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ScheduleChangeEvent> streamChangesNdjson(
+            @Parameter(description = "Solo cambios de este empleado", example = "1")
+            @RequestParam(required = false) Long employeeId,
+            @Parameter(description = "Solo cambios de esta sede", example = "Sede Central")
+            @RequestParam(required = false) String headquarters,
+            @Parameter(description = "Último 'sequence' recibido")
+            @RequestParam(required = false) String since) {
+        return scheduleChangeStream.changes(employeeId, headquarters, since);
     }
     
     @Operation(
@@ -110,6 +278,23 @@ public class ScheduleController {
                 .map(schedule -> ResponseEntity.status(HttpStatus.CREATED).body(schedule));
     }
     
+    @Operation(
+        summary = "Crear citas en lote",
+        description = "Crea múltiples citas a partir de un arreglo JSON o de un flujo NDJSON. Valida los solapamientos " +
+                     "dentro del lote y contra las citas existentes, y devuelve un resultado por cada cita en el mismo orden"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote procesado; cada resultado indica el código de la cita (201, 400 o 409)")
+    })
+    @PostMapping(value = "/batch",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+                 produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ScheduleBatchResult> createSchedules(
+            @Parameter(description = "Citas a crear", required = true)
+            @RequestBody Flux<CreateScheduleRequest> requests) {
+        return scheduleBatchService.createSchedules(requests);
+    }
+    
     @Operation(
         summary = "Actualizar cita",
         description = "Actualiza una cita existente. Valida que no haya solapamiento de horarios"
@@ -130,6 +315,29 @@ public class ScheduleController {
                 .map(ResponseEntity::ok);
     }
     
+    @Operation(
+        summary = "Modificar cita parcialmente",
+        description = "Modifica solo los campos enviados. Si solo cambian los detalles se aplica un único UPDATE sin " +
+                     "validar conflictos; cualquier otro campo (empleado, usuario, horario, sede, oficina, modalidad o " +
+                     "tipo de sesión) se valida como en PUT. Con 'version' se rechaza el cambio si la cita se modificó " +
+                     "después de leerla"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cita modificada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "404", description = "Cita no encontrada"),
+        @ApiResponse(responseCode = "409", description = "Conflicto de horarios o la versión enviada ya no es la actual")
+    })
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Schedule>> patchSchedule(
+            @Parameter(description = "ID de la cita a modificar", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Campos a modificar", required = true)
+            @RequestBody PatchScheduleRequest request) {
+        return scheduleService.patchSchedule(id, request)
+                .map(ResponseEntity::ok);
+    }
+    
     @Operation(
         summary = "Eliminar cita",
         description = "Elimina una cita del sistema"
@@ -0,0 +1,56 @@
+package com.reactive.nexo.controller;
+
+import com.reactive.nexo.dto.ExportFormat;
+import com.reactive.nexo.service.ScheduleExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/schedule/export")
+@RequiredArgsConstructor
+@Tag(name = "Schedule Export", description = "API de exportación masiva de citas para analítica")
+public class ScheduleExportController {
+
+    private final ScheduleExportService scheduleExportService;
+
+    @Operation(
+        summary = "Exportar citas de un rango",
+        description = "Envía en streaming las citas que empiezan en [from, to) ordenadas por inicio. 'binary' usa un " +
+                     "formato columnar por bloques (fechas en segundos epoch, sede y oficina como diccionario); 'csv' " +
+                     "una fila por cita. Incluye las citas archivadas del rango. No incluye 'details'"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso"),
+        @ApiResponse(responseCode = "400", description = "Rango o formato inválidos")
+    })
+    @GetMapping
+    public ResponseEntity<Flux<DataBuffer>> export(
+            @Parameter(description = "Inicio del rango (ISO)", required = true, example = "2025-01-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fin del rango, excluido (ISO)", required = true, example = "2025-02-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Formato: binary o csv", example = "binary")
+            @RequestParam(defaultValue = "binary") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("schedules-" + from.toLocalDate() + "." + exportFormat.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(scheduleExportService.export(from, to, exportFormat));
+    }
+}
@@ -0,0 +1,131 @@
+package com.reactive.nexo.controller;
+
+import com.reactive.nexo.dto.CreateScheduleSeriesRequest;
+import com.reactive.nexo.dto.ScheduleOccurrenceOverrideRequest;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.model.ScheduleSeries;
+import com.reactive.nexo.model.ScheduleSeriesOverride;
+import com.reactive.nexo.service.ScheduleSeriesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/schedule/series")
+@RequiredArgsConstructor
+@Tag(name = "Schedule Series", description = "API para citas recurrentes")
+public class ScheduleSeriesController {
+
+    private final ScheduleSeriesService scheduleSeriesService;
+
+    @Operation(
+        summary = "Crear serie recurrente",
+        description = "Crea una serie de citas a partir de la primera ocurrencia y una regla RRULE (FREQ=DAILY|WEEKLY, " +
+                     "INTERVAL, COUNT o UNTIL, BYDAY). Valida solapamientos contra citas y otras series sin expandir todo el horizonte"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Serie creada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Datos o regla de recurrencia inválidos"),
+        @ApiResponse(responseCode = "409", description = "Conflicto de horarios con citas o series existentes")
+    })
+    @PostMapping
+    public Mono<ResponseEntity<ScheduleSeries>> createSeries(
+            @Parameter(description = "Datos de la serie", required = true)
+            @RequestBody CreateScheduleSeriesRequest request) {
+        return scheduleSeriesService.createSeries(request)
+                .map(series -> ResponseEntity.status(HttpStatus.CREATED).body(series));
+    }
+
+    @Operation(summary = "Obtener serie por ID", description = "Devuelve la definición de una serie recurrente")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Serie encontrada"),
+        @ApiResponse(responseCode = "404", description = "Serie no encontrada")
+    })
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ScheduleSeries>> getSeriesById(
+            @Parameter(description = "ID de la serie", required = true)
+            @PathVariable Long id) {
+        return scheduleSeriesService.getSeriesById(id)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+        summary = "Obtener ocurrencias de una serie",
+        description = "Devuelve las ocurrencias de la serie dentro de la ventana, aplicando cancelaciones y cambios"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ocurrencias obtenidas exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Serie no encontrada")
+    })
+    @GetMapping("/{id}/occurrences")
+    public Flux<Schedule> getOccurrences(
+            @Parameter(description = "ID de la serie", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Inicio de la ventana (ISO)", required = true, example = "2025-01-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fin de la ventana (ISO)", required = true, example = "2025-03-31T23:59:59")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return scheduleSeriesService.getOccurrences(id, from, to);
+    }
+
+    @Operation(
+        summary = "Modificar una ocurrencia",
+        description = "Cambia el horario o los detalles de una ocurrencia concreta identificada por su inicio original"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ocurrencia modificada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "404", description = "Serie u ocurrencia no encontrada"),
+        @ApiResponse(responseCode = "409", description = "Conflicto de horarios con el nuevo horario")
+    })
+    @PutMapping("/{id}/occurrences")
+    public Mono<ResponseEntity<ScheduleSeriesOverride>> overrideOccurrence(
+            @Parameter(description = "ID de la serie", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Inicio original de la ocurrencia (ISO)", required = true, example = "2025-01-15T09:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime originalStartAt,
+            @Parameter(description = "Cambios de la ocurrencia", required = true)
+            @RequestBody ScheduleOccurrenceOverrideRequest request) {
+        return scheduleSeriesService.overrideOccurrence(id, originalStartAt, request)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Cancelar una ocurrencia", description = "Cancela una ocurrencia concreta sin afectar al resto de la serie")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Ocurrencia cancelada exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Serie u ocurrencia no encontrada")
+    })
+    @DeleteMapping("/{id}/occurrences")
+    public Mono<ResponseEntity<Void>> cancelOccurrence(
+            @Parameter(description = "ID de la serie", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Inicio original de la ocurrencia (ISO)", required = true, example = "2025-01-15T09:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime originalStartAt) {
+        return scheduleSeriesService.cancelOccurrence(id, originalStartAt)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    @Operation(summary = "Eliminar serie", description = "Elimina una serie y todas sus excepciones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Serie eliminada exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Serie no encontrada")
+    })
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteSeries(
+            @Parameter(description = "ID de la serie", required = true)
+            @PathVariable Long id) {
+        return scheduleSeriesService.deleteSeries(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.reactive.nexo.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Día de agenda precalculado de un empleado, una sede o una oficina")
+public class AgendaDayView {
+    @Schema(description = "Tipo de vista", example = "EMPLOYEE")
+    private AgendaScope scope;
+
+    @Schema(description = "Clave de la vista: ID del empleado, sede o 'sede|oficina'", example = "1")
+    private String key;
+
+    @Schema(description = "Día", example = "2024-02-15")
+    private LocalDate date;
+
+    @Schema(description = "Número de citas del día", example = "3")
+    private int entryCount;
+
+    // JSON ya serializado al mantener la vista; se escribe tal cual sin volver a procesarlo
+    @JsonRawValue
+    @ArraySchema(schema = @Schema(implementation = AgendaEntry.class), arraySchema = @Schema(description = "Citas del día ordenadas por inicio"))
+    private String entries;
+}
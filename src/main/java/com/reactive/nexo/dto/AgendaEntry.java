@@ -0,0 +1,60 @@
+package com.reactive.nexo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.reactive.nexo.model.Schedule;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cita dentro de un día de agenda, sin campos de auditoría")
+public class AgendaEntry {
+    @Schema(description = "ID de la cita", example = "1")
+    private Long id;
+
+    @Schema(description = "ID del empleado", example = "1")
+    private Long employeeId;
+
+    @Schema(description = "ID del usuario", example = "1")
+    private Long userId;
+
+    @Schema(description = "Fecha y hora de inicio", example = "2024-02-15T09:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Fecha y hora de fin", example = "2024-02-15T10:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Detalles adicionales", example = "Consulta médica general")
+    private String details;
+
+    @Schema(description = "Sede", example = "Sede Central")
+    private String headquarters;
+
+    @Schema(description = "Oficina", example = "Oficina 101")
+    private String office;
+
+    @Schema(description = "Indica si la cita es presencial", example = "true")
+    private Boolean inPerson;
+
+    @Schema(description = "Indica si es una sesión grupal", example = "false")
+    private Boolean groupSession;
+
+    @Schema(description = "ID de la serie recurrente si es una ocurrencia (sin 'id')", example = "3")
+    private Long seriesId;
+
+    @Schema(description = "Inicio original de la ocurrencia dentro de su serie", example = "2024-02-15T09:00:00")
+    private LocalDateTime originalStartAt;
+
+    public static AgendaEntry of(Schedule schedule) {
+        return new AgendaEntry(schedule.getId(), schedule.getEmployeeId(), schedule.getUserId(),
+                schedule.getStartAt(), schedule.getEndAt(), schedule.getDetails(), schedule.getHeadquarters(),
+                schedule.getOffice(), schedule.getInPerson(), schedule.getGroupSession(), schedule.getSeriesId(),
+                schedule.getOriginalStartAt());
+    }
+}
@@ -0,0 +1,8 @@
+package com.reactive.nexo.dto;
+
+// Vista de agenda precalculada: por empleado, por sede o por oficina dentro de una sede
+public enum AgendaScope {
+    EMPLOYEE,
+    HEADQUARTERS,
+    OFFICE
+}
@@ -0,0 +1,26 @@
+package com.reactive.nexo.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+public enum CountMode {
+    // Conteo exacto del total de elementos
+    EXACT,
+    // Estimación a partir de las estadísticas del planificador de PostgreSQL (solo listados sin filtros)
+    ESTIMATE,
+    // Sin conteo: totalElements y totalPages se devuelven como -1
+    NONE;
+
+    public static CountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "countMode must be one of exact, estimate, none");
+        }
+    }
+}
@@ -40,4 +40,8 @@ public class CreateScheduleRequest {
     @Schema(description = "Indica si es una sesión grupal que permite múltiples usuarios en la misma hora", 
             example = "false", defaultValue = "false")
     private Boolean groupSession;
+    
+    @Schema(description = "Aforo máximo al abrir una sesión grupal nueva; se ignora si la sesión ya existe", 
+            example = "20", defaultValue = "50")
+    private Integer capacity;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.reactive.nexo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Solicitud para crear una serie de citas recurrentes")
+public class CreateScheduleSeriesRequest {
+    @Schema(description = "ID del empleado que atenderá las citas", example = "1", required = true)
+    private Long employeeId;
+
+    @Schema(description = "ID del usuario que tendrá las citas", example = "1", required = true)
+    private Long userId;
+
+    @Schema(description = "Inicio de la primera ocurrencia", example = "2024-02-15T09:00:00", required = true)
+    private LocalDateTime startAt;
+
+    @Schema(description = "Fin de la primera ocurrencia", example = "2024-02-15T10:00:00", required = true)
+    private LocalDateTime endAt;
+
+    @Schema(description = "Regla de recurrencia: FREQ=DAILY|WEEKLY, INTERVAL, COUNT o UNTIL, BYDAY (semanal)",
+            example = "FREQ=WEEKLY;INTERVAL=2;COUNT=10", required = true)
+    private String recurrence;
+
+    @Schema(description = "Detalles adicionales de las citas", example = "Control de seguimiento")
+    private String details;
+
+    @Schema(description = "Sede donde se realizarán las citas", example = "Sede Central")
+    private String headquarters;
+
+    @Schema(description = "Oficina donde se realizarán las citas", example = "Oficina 101")
+    private String office;
+
+    @Schema(description = "Indica si las citas son presenciales", example = "false", defaultValue = "false")
+    private Boolean inPerson;
+}
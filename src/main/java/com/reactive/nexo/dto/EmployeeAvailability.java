@@ -0,0 +1,33 @@
+package com.reactive.nexo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Huecos libres de un empleado dentro de la ventana consultada")
+public class EmployeeAvailability {
+    @Schema(description = "ID del empleado", example = "1")
+    private Long employeeId;
+
+    @Schema(description = "Huecos libres de la duración solicitada, en orden cronológico")
+    private List<Slot> slots;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Hueco libre")
+    public static class Slot {
+        @Schema(description = "Inicio del hueco", example = "2024-02-15T09:00:00")
+        private LocalDateTime startAt;
+
+        @Schema(description = "Fin del hueco", example = "2024-02-15T09:30:00")
+        private LocalDateTime endAt;
+    }
+}
@@ -4,8 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Data
 @AllArgsConstructor
@@ -18,4 +20,11 @@ public class PagedResponse<T> {
     private long totalPages;
     @JsonProperty("isLast")
     private boolean last;
+    @Schema(description = "Cursor opaco para solicitar la siguiente página ordenada por (startAt, id)")
+    private String nextCursor;
+
+    public <R> PagedResponse<R> map(Function<T, R> mapper) {
+        return new PagedResponse<>(content.stream().map(mapper).toList(), page, size, totalElements, totalPages,
+                last, nextCursor);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.reactive.nexo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Solo se modifican los campos presentes; un campo nulo conserva su valor actual
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Modificación parcial de una cita")
+public class PatchScheduleRequest {
+    @Schema(description = "Nuevo empleado; obliga a validar solapamientos", example = "1")
+    private Long employeeId;
+
+    @Schema(description = "Nuevo usuario; obliga a validar solapamientos", example = "1")
+    private Long userId;
+
+    @Schema(description = "Nueva hora de inicio; obliga a validar solapamientos", example = "2024-02-15T09:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Nueva hora de fin; obliga a validar solapamientos", example = "2024-02-15T10:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Detalles adicionales de la cita", example = "Traer estudios previos")
+    private String details;
+
+    @Schema(description = "Sede donde se realizará la cita", example = "Sede Norte")
+    private String headquarters;
+
+    @Schema(description = "Oficina donde se realizará la cita", example = "Oficina 204")
+    private String office;
+
+    @Schema(description = "Indica si la cita es presencial", example = "true")
+    private Boolean inPerson;
+
+    @Schema(description = "Cambia entre sesión individual y grupal; obliga a validar solapamientos", example = "false")
+    private Boolean groupSession;
+
+    @Schema(description = "Aforo si el cambio abre una sesión grupal nueva", example = "20")
+    private Integer capacity;
+
+    @Schema(description = "Versión leída de la cita; si ya cambió se responde 409 en lugar de sobrescribir", example = "3")
+    private Long version;
+}
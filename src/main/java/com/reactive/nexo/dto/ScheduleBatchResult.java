@@ -0,0 +1,33 @@
+package com.reactive.nexo.dto;
+
+import com.reactive.nexo.model.Schedule;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de una cita dentro de una creación masiva")
+public class ScheduleBatchResult {
+    @Schema(description = "Posición de la cita en la solicitud (base 0)", example = "0")
+    private int index;
+
+    @Schema(description = "Código HTTP equivalente al resultado de la cita", example = "201")
+    private int status;
+
+    @Schema(description = "Cita creada, si se aceptó")
+    private Schedule schedule;
+
+    @Schema(description = "Motivo del rechazo, si no se aceptó", example = "Employee has overlapping schedule")
+    private String error;
+
+    public static ScheduleBatchResult created(int index, Schedule schedule) {
+        return new ScheduleBatchResult(index, 201, schedule, null);
+    }
+
+    public static ScheduleBatchResult rejected(int index, int status, String error) {
+        return new ScheduleBatchResult(index, status, null, error);
+    }
+}
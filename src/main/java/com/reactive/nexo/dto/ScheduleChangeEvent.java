@@ -0,0 +1,55 @@
+package com.reactive.nexo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.reactive.nexo.model.Schedule;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cambio en una cita emitido por el flujo de cambios")
+public class ScheduleChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // El token de reanudación ya no está en el búfer: el cliente debe recargar y seguir desde 'sequence'
+        RESET
+    }
+
+    @Schema(description = "Número de secuencia; sirve como token de reanudación", example = "1718000000000001")
+    private Long sequence;
+
+    @Schema(description = "Tipo de cambio", example = "CREATED")
+    private Type type;
+
+    @Schema(description = "Momento del cambio")
+    private LocalDateTime occurredAt;
+
+    @Schema(description = "Empleado anterior si la actualización cambió de empleado", example = "2")
+    private Long previousEmployeeId;
+
+    @Schema(description = "Sede anterior si la actualización cambió de sede", example = "Sede Norte")
+    private String previousHeadquarters;
+
+    @Schema(description = "Cita tras el cambio (o la cita eliminada)")
+    private Schedule schedule;
+
+    public boolean matches(Long employeeId, String headquarters) {
+        if (type == Type.RESET) {
+            return true;
+        }
+        boolean employeeMatches = employeeId == null || employeeId.equals(schedule.getEmployeeId())
+                || employeeId.equals(previousEmployeeId);
+        boolean headquartersMatches = headquarters == null || headquarters.equals(schedule.getHeadquarters())
+                || headquarters.equals(previousHeadquarters);
+        return employeeMatches && headquartersMatches;
+    }
+}
@@ -0,0 +1,23 @@
+package com.reactive.nexo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambios sobre una ocurrencia concreta de una serie; los campos vacíos conservan el valor de la serie")
+public class ScheduleOccurrenceOverrideRequest {
+    @Schema(description = "Nuevo inicio de la ocurrencia", example = "2024-02-29T11:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Nuevo fin de la ocurrencia", example = "2024-02-29T12:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Detalles de la ocurrencia", example = "Control reprogramado")
+    private String details;
+}
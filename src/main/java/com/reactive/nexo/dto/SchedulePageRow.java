@@ -0,0 +1,32 @@
+package com.reactive.nexo.dto;
+
+import com.reactive.nexo.model.Schedule;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Proyección de una fila de página que incluye el total calculado con COUNT(*) OVER()
+@Data
+@NoArgsConstructor
+public class SchedulePageRow {
+    private Long id;
+    private Long employeeId;
+    private Long userId;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private String details;
+    private String headquarters;
+    private String office;
+    private Boolean inPerson;
+    private Boolean groupSession;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private Long totalCount;
+
+    public Schedule toSchedule() {
+        return new Schedule(id, employeeId, userId, startAt, endAt, details, headquarters, office,
+                inPerson, groupSession, createdAt, updatedAt, version, null, null);
+    }
+}
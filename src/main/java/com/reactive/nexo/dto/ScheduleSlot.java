@@ -0,0 +1,42 @@
+package com.reactive.nexo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.reactive.nexo.model.Schedule;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Proyección para rejillas de calendario: las columnas de la franja sin el texto libre de 'details'
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cita reducida a su franja (view=slot)")
+public class ScheduleSlot {
+    private Long id;
+    private Long employeeId;
+    private Long userId;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private String headquarters;
+    private String office;
+    private Boolean inPerson;
+    private Boolean groupSession;
+    @Schema(description = "ID de la serie si es una ocurrencia de una serie recurrente")
+    private Long seriesId;
+
+    public static ScheduleSlot of(Schedule schedule) {
+        return new ScheduleSlot(schedule.getId(), schedule.getEmployeeId(), schedule.getUserId(),
+                schedule.getStartAt(), schedule.getEndAt(), schedule.getHeadquarters(), schedule.getOffice(),
+                schedule.getInPerson(), schedule.getGroupSession(), schedule.getSeriesId());
+    }
+
+    // Cita parcial para combinarla con las demás fuentes del listado; no debe guardarse
+    public Schedule toSchedule() {
+        return new Schedule(id, employeeId, userId, startAt, endAt, null, headquarters, office,
+                inPerson, groupSession, null, null, null, seriesId, null);
+    }
+}
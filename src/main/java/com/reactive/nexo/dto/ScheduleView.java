@@ -0,0 +1,30 @@
+package com.reactive.nexo.dto;
+
+import com.reactive.nexo.model.Schedule;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+// Columnas que devuelven los listados
+public enum ScheduleView {
+    // La entidad completa
+    FULL,
+    // Solo la franja (ScheduleSlot): sin 'details' ni fechas de auditoría, que SQL ni siquiera lee
+    SLOT;
+
+    public static ScheduleView from(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        try {
+            return ScheduleView.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "view must be one of full, slot");
+        }
+    }
+
+    public Object render(Schedule schedule) {
+        return this == SLOT ? ScheduleSlot.of(schedule) : schedule;
+    }
+}
@@ -2,39 +2,59 @@ package com.reactive.nexo.initialize;
 
 import com.reactive.nexo.model.Schedule;
 import com.reactive.nexo.repository.ScheduleRepository;
-import lombok.RequiredArgsConstructor;
+import com.reactive.nexo.service.GroupSessionService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Datos de ejemplo en bases vacías. Se espera a que terminen (con un límite) antes de dar la aplicación por
+// arrancada, así el índice de conflictos los carga al iniciar y el pod no recibe tráfico a medio sembrar
 @Component
 @Profile("!test")
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "schedule.sample-data.enabled", havingValue = "true", matchIfMissing = true)
 @Slf4j
 public class ScheduleInitializer implements CommandLineRunner {
     
     private final ScheduleRepository scheduleRepository;
+    private final GroupSessionService groupSessionService;
+    private final Duration timeout;
+    
+    public ScheduleInitializer(ScheduleRepository scheduleRepository,
+                               GroupSessionService groupSessionService,
+                               @Value("${schedule.sample-data.timeout:30s}") Duration timeout) {
+        this.scheduleRepository = scheduleRepository;
+        this.groupSessionService = groupSessionService;
+        this.timeout = timeout;
+    }
     
     @Override
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
         scheduleRepository.count()
-                .flatMapMany(count -> {
+                .flatMap(count -> {
                     if (count == 0) {
                         log.info("Initializing schedule data...");
-                        return createSampleSchedules();
-                    } else {
-                        log.info("Schedule data already exists, skipping initialization");
-                        return Flux.empty();
+                        return createSampleSchedules().count()
+                                .doOnNext(created -> log.info("Schedule initialization completed with {} schedules", created));
                     }
+                    log.info("Schedule data already exists, skipping initialization");
+                    return Mono.<Long>empty();
+                })
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Schedule sample data could not be created: {}", e.getMessage());
+                    return Mono.empty();
                 })
-                .doOnComplete(() -> log.info("Schedule initialization completed"))
-                .subscribe();
+                .block();
     }
     
     private Flux<Schedule> createSampleSchedules() {
@@ -134,6 +154,9 @@ public class ScheduleInitializer implements CommandLineRunner {
         schedules.add(new Schedule(3L, 108L, groupSession3Start, groupSession3End, 
                 "Clase grupal de ejercicios terapéuticos", true));
         
-        return scheduleRepository.saveAll(schedules);
+        // Las citas grupales de ejemplo se registran también como sesiones con su aforo y asistentes
+        return scheduleRepository.saveAll(schedules)
+                .collectList()
+                .flatMapMany(saved -> groupSessionService.adopt(saved).thenMany(Flux.fromIterable(saved)));
     }
 }
\ No newline at end of file
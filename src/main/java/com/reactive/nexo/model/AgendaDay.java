@@ -0,0 +1,36 @@
+package com.reactive.nexo.model;
+
+import com.reactive.nexo.dto.AgendaScope;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Día de agenda desnormalizado: las citas del día ya serializadas en JSON compacto
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("agenda_day")
+public class AgendaDay {
+    @Id
+    private Long id;
+
+    private AgendaScope scopeType;
+
+    private String scopeKey;
+
+    private LocalDate agendaDate;
+
+    private Integer entryCount;
+
+    private String entries;
+
+    private LocalDateTime updatedAt;
+
+    // Número del recálculo que escribió el día (secuencia agenda_day_build_seq)
+    private Long buildSeq;
+}
@@ -0,0 +1,42 @@
+package com.reactive.nexo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("group_session")
+@Schema(description = "Sesión grupal de un empleado en una franja exacta, con aforo y número de asistentes")
+public class GroupSession {
+    @Id
+    @Schema(description = "ID único de la sesión grupal", example = "1")
+    private Long id;
+
+    @Schema(description = "ID del empleado que imparte la sesión", example = "1")
+    private Long employeeId;
+
+    @Schema(description = "Fecha y hora de inicio", example = "2024-02-15T16:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Fecha y hora de fin", example = "2024-02-15T17:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Número máximo de asistentes", example = "50")
+    private Integer capacity;
+
+    @Schema(description = "Número de asistentes con plaza reservada", example = "12")
+    private Integer attendeeCount;
+
+    @Schema(description = "Fecha de creación del registro")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Fecha de última actualización")
+    private LocalDateTime updatedAt;
+}
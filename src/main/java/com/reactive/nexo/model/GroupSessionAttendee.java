@@ -0,0 +1,33 @@
+package com.reactive.nexo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("group_session_attendee")
+@Schema(description = "Asistente de una sesión grupal, enlazado con su cita")
+public class GroupSessionAttendee {
+    @Id
+    @Schema(description = "ID único de la inscripción", example = "1")
+    private Long id;
+
+    @Schema(description = "ID de la sesión grupal", example = "1")
+    private Long groupSessionId;
+
+    @Schema(description = "ID del usuario asistente", example = "100")
+    private Long userId;
+
+    @Schema(description = "ID de la cita del asistente", example = "42")
+    private Long scheduleId;
+
+    @Schema(description = "Fecha de creación del registro")
+    private LocalDateTime createdAt;
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
@@ -52,6 +54,19 @@ public class Schedule {
     @Schema(description = "Fecha de última actualización")
     private LocalDateTime updatedAt;
 
+    // Bloqueo optimista: cada UPDATE exige la versión leída y la incrementa
+    @Version
+    @Schema(description = "Versión de la cita; se envía en PATCH para rechazar cambios sobre datos obsoletos", example = "0")
+    private Long version;
+
+    @Transient
+    @Schema(description = "ID de la serie si la cita es una ocurrencia de una serie recurrente", example = "1")
+    private Long seriesId;
+
+    @Transient
+    @Schema(description = "Inicio original de la ocurrencia dentro de su serie", example = "2024-02-15T09:00:00")
+    private LocalDateTime originalStartAt;
+
     public Schedule(Long employeeId, Long userId, LocalDateTime startAt, LocalDateTime endAt, String details, String headquarters, String office, Boolean inPerson, Boolean groupSession) {
         this.employeeId = employeeId;
         this.userId = userId;
@@ -0,0 +1,32 @@
+package com.reactive.nexo.model;
+
+import com.reactive.nexo.dto.ScheduleChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Evento pendiente o ya publicado de la bandeja de salida; el id sirve a los consumidores para descartar
+// duplicados, ya que la entrega es al menos una vez
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("schedule_outbox")
+public class ScheduleOutboxEvent {
+    @Id
+    private Long id;
+
+    private Long scheduleId;
+
+    private ScheduleChangeEvent.Type eventType;
+
+    // La cita serializada en JSON tal como quedó tras el cambio (o antes de borrarse)
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,57 @@
+package com.reactive.nexo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("schedule_series")
+@Schema(description = "Serie de citas recurrentes; las ocurrencias se calculan a partir de la regla")
+public class ScheduleSeries {
+    @Id
+    @Schema(description = "ID único de la serie", example = "1")
+    private Long id;
+
+    @Schema(description = "ID del empleado que atenderá", example = "1")
+    private Long employeeId;
+
+    @Schema(description = "ID del usuario de la cita", example = "1")
+    private Long userId;
+
+    @Schema(description = "Inicio de la primera ocurrencia", example = "2024-02-15T09:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Fin de la primera ocurrencia", example = "2024-02-15T10:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Regla de recurrencia (subconjunto de RRULE)", example = "FREQ=WEEKLY;INTERVAL=2;COUNT=10")
+    private String recurrence;
+
+    @Schema(description = "Fin de la última ocurrencia; vacío si la serie no tiene fin")
+    private LocalDateTime lastEndAt;
+
+    @Schema(description = "Detalles adicionales", example = "Control de seguimiento")
+    private String details;
+
+    @Schema(description = "Sede donde se realizará la cita", example = "Sede Central")
+    private String headquarters;
+
+    @Schema(description = "Oficina donde se realizará la cita", example = "Oficina 101")
+    private String office;
+
+    @Schema(description = "Indica si la cita es presencial", example = "false")
+    private Boolean inPerson;
+
+    @Schema(description = "Fecha de creación del registro")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Fecha de última actualización")
+    private LocalDateTime updatedAt;
+}
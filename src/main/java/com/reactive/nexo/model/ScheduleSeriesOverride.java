@@ -0,0 +1,42 @@
+package com.reactive.nexo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("schedule_series_override")
+@Schema(description = "Excepción de una ocurrencia de una serie: cancelación o cambio de horario/detalles")
+public class ScheduleSeriesOverride {
+    @Id
+    @Schema(description = "ID único de la excepción", example = "1")
+    private Long id;
+
+    @Schema(description = "ID de la serie", example = "1")
+    private Long seriesId;
+
+    @Schema(description = "Inicio original de la ocurrencia según la regla", example = "2024-02-29T09:00:00")
+    private LocalDateTime originalStartAt;
+
+    @Schema(description = "Indica si la ocurrencia fue cancelada", example = "false")
+    private Boolean cancelled;
+
+    @Schema(description = "Nuevo inicio de la ocurrencia", example = "2024-02-29T11:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Nuevo fin de la ocurrencia", example = "2024-02-29T12:00:00")
+    private LocalDateTime endAt;
+
+    @Schema(description = "Detalles de la ocurrencia", example = "Control reprogramado")
+    private String details;
+
+    @Schema(description = "Fecha de creación del registro")
+    private LocalDateTime createdAt;
+}
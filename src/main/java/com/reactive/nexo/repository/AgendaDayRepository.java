@@ -0,0 +1,21 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.AgendaDay;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+public interface AgendaDayRepository extends R2dbcRepository<AgendaDay, Long> {
+
+    // Un único recorrido del índice único (scope_type, scope_key, agenda_date)
+    @Query("SELECT * FROM agenda_day WHERE scope_type = :scopeType AND scope_key = :scopeKey AND " +
+           "agenda_date >= :from AND agenda_date < :to ORDER BY agenda_date")
+    Flux<AgendaDay> findDays(
+            @Param("scopeType") String scopeType,
+            @Param("scopeKey") String scopeKey,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
@@ -0,0 +1,79 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.AgendaDay;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// Escritura de días de agenda condicionada al número de recálculo: una sola sentencia que inserta el día o lo
+// sustituye solo si el guardado tiene un build_seq menor. PostgreSQL usa INSERT ... ON CONFLICT y H2 el MERGE
+// estándar; el número sale de la secuencia agenda_day_build_seq con la sintaxis de cada base de datos
+@Repository
+public class AgendaDayStore {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO agenda_day " +
+            "(scope_type, scope_key, agenda_date, entry_count, entries, updated_at, build_seq) " +
+            "VALUES (:scopeType, :scopeKey, :agendaDate, :entryCount, :entries, :updatedAt, :buildSeq) " +
+            "ON CONFLICT (scope_type, scope_key, agenda_date) DO UPDATE SET entry_count = EXCLUDED.entry_count, " +
+            "entries = EXCLUDED.entries, updated_at = EXCLUDED.updated_at, build_seq = EXCLUDED.build_seq " +
+            "WHERE agenda_day.build_seq < EXCLUDED.build_seq";
+
+    private static final String H2_UPSERT = "MERGE INTO agenda_day d USING (SELECT " +
+            "CAST(:scopeType AS VARCHAR(20)) AS scope_type, CAST(:scopeKey AS VARCHAR(255)) AS scope_key, " +
+            "CAST(:agendaDate AS DATE) AS agenda_date, CAST(:entryCount AS INT) AS entry_count, " +
+            "CAST(:entries AS VARCHAR) AS entries, CAST(:updatedAt AS TIMESTAMP) AS updated_at, " +
+            "CAST(:buildSeq AS BIGINT) AS build_seq) s " +
+            "ON d.scope_type = s.scope_type AND d.scope_key = s.scope_key AND d.agenda_date = s.agenda_date " +
+            "WHEN MATCHED AND d.build_seq < s.build_seq THEN UPDATE SET entry_count = s.entry_count, " +
+            "entries = s.entries, updated_at = s.updated_at, build_seq = s.build_seq " +
+            "WHEN NOT MATCHED THEN INSERT (scope_type, scope_key, agenda_date, entry_count, entries, updated_at, build_seq) " +
+            "VALUES (s.scope_type, s.scope_key, s.agenda_date, s.entry_count, s.entries, s.updated_at, s.build_seq)";
+
+    private final DatabaseClient databaseClient;
+    private final boolean postgres;
+
+    public AgendaDayStore(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.postgres = databaseClient.getConnectionFactory().getMetadata().getName().contains("PostgreSQL");
+    }
+
+    // Se pide antes de leer las citas del día que se va a recalcular
+    public Mono<Long> nextBuild() {
+        return databaseClient.sql(postgres
+                        ? "SELECT nextval('agenda_day_build_seq')"
+                        : "SELECT NEXT VALUE FOR agenda_day_build_seq")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    // Fechas ya guardadas de una vista en [from, to); to null no pone fin
+    public Flux<LocalDate> storedDays(String scopeType, String scopeKey, LocalDate from, LocalDate to) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT agenda_date FROM agenda_day " +
+                        "WHERE scope_type = :scopeType AND scope_key = :scopeKey AND agenda_date >= :from" +
+                        (to != null ? " AND agenda_date < :to" : "") + " ORDER BY agenda_date")
+                .bind("scopeType", scopeType)
+                .bind("scopeKey", scopeKey)
+                .bind("from", from);
+        if (to != null) {
+            spec = spec.bind("to", to);
+        }
+        return spec.map((row, metadata) -> row.get(0, LocalDate.class)).all();
+    }
+
+    // Devuelve 0 si ya había un día guardado por un recálculo posterior
+    public Mono<Long> upsert(AgendaDay day) {
+        return databaseClient.sql(postgres ? POSTGRES_UPSERT : H2_UPSERT)
+                .bind("scopeType", day.getScopeType().name())
+                .bind("scopeKey", day.getScopeKey())
+                .bind("agendaDate", day.getAgendaDate())
+                .bind("entryCount", day.getEntryCount())
+                .bind("entries", day.getEntries())
+                .bind("updatedAt", day.getUpdatedAt())
+                .bind("buildSeq", day.getBuildSeq())
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,13 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.GroupSessionAttendee;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface GroupSessionAttendeeRepository extends R2dbcRepository<GroupSessionAttendee, Long> {
+
+    Mono<GroupSessionAttendee> findByScheduleId(Long scheduleId);
+
+    Flux<GroupSessionAttendee> findByGroupSessionIdOrderById(Long groupSessionId);
+}
@@ -0,0 +1,38 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.GroupSession;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface GroupSessionRepository extends R2dbcRepository<GroupSession, Long> {
+
+    // Búsqueda por la restricción única (employee_id, start_at, end_at)
+    Mono<GroupSession> findByEmployeeIdAndStartAtAndEndAt(Long employeeId, LocalDateTime startAt, LocalDateTime endAt);
+
+    // Reserva atómica de plaza: devuelve 0 si la sesión está llena o ya no existe
+    @Modifying
+    @Query("UPDATE group_session SET attendee_count = attendee_count + 1, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id AND attendee_count < capacity")
+    Mono<Integer> reserveSeat(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE group_session SET attendee_count = attendee_count - 1, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id AND attendee_count > 0")
+    Mono<Integer> releaseSeat(@Param("id") Long id);
+
+    // La franja del empleado queda libre cuando sale el último asistente
+    @Modifying
+    @Query("DELETE FROM group_session WHERE id = :id AND attendee_count = 0")
+    Mono<Integer> deleteIfEmpty(@Param("id") Long id);
+
+    // No se permite reducir el aforo por debajo de los asistentes ya inscritos
+    @Modifying
+    @Query("UPDATE group_session SET capacity = :capacity, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id AND attendee_count <= :capacity")
+    Mono<Integer> updateCapacity(@Param("id") Long id, @Param("capacity") int capacity);
+}
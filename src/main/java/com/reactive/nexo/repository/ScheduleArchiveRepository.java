@@ -0,0 +1,126 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.Schedule;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.TreeSet;
+
+// Citas archivadas (tabla schedule_archive, con el mismo mapeo que Schedule) y el traslado desde la tabla
+// principal. Las consultas solo incluyen los extremos de la ventana que se indican, para que PostgreSQL
+// descarte las particiones mensuales que quedan fuera
+@Repository
+public class ScheduleArchiveRepository {
+
+    static final String TABLE = "schedule_archive";
+
+    private static final String COLUMNS = "id, employee_id, user_id, start_at, end_at, details, headquarters, " +
+            "office, in_person, group_session, created_at, updated_at, version";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final R2dbcEntityTemplate entityTemplate;
+    private final DatabaseClient databaseClient;
+    private final boolean partitioned;
+
+    public ScheduleArchiveRepository(R2dbcEntityTemplate entityTemplate, DatabaseClient databaseClient) {
+        this.entityTemplate = entityTemplate;
+        this.databaseClient = databaseClient;
+        this.partitioned = databaseClient.getConnectionFactory().getMetadata().getName().contains("PostgreSQL");
+    }
+
+    public Flux<Schedule> findByEmployeeIdWithin(Long employeeId, LocalDateTime from, LocalDateTime to, int limit) {
+        return findWithin(Criteria.where("employeeId").is(employeeId), from, to, limit);
+    }
+
+    public Flux<Schedule> findByUserIdWithin(Long userId, LocalDateTime from, LocalDateTime to, int limit) {
+        return findWithin(Criteria.where("userId").is(userId), from, to, limit);
+    }
+
+    private Flux<Schedule> findWithin(Criteria criteria, LocalDateTime from, LocalDateTime to, int limit) {
+        if (from != null) {
+            criteria = criteria.and("endAt").greaterThan(from);
+        }
+        if (to != null) {
+            criteria = criteria.and("startAt").lessThan(to);
+        }
+        return entityTemplate.select(Schedule.class)
+                .from(TABLE)
+                .matching(Query.query(criteria).sort(Sort.by("startAt", "id")).limit(limit))
+                .all();
+    }
+
+    // Citas de la tabla principal que terminaron antes de 'before', las más antiguas primero
+    public Flux<Schedule> findExpired(LocalDateTime before, int limit) {
+        return entityTemplate.select(Schedule.class)
+                .matching(Query.query(Criteria.where("endAt").lessThan(before)).sort(Sort.by("endAt")).limit(limit))
+                .all();
+    }
+
+    // Particiones de los meses indicados; en H2 la tabla no está particionada y no hay nada que crear.
+    // PostgreSQL no deja crear la partición de un mes si schedule_archive_default ya tiene filas de ese mes,
+    // así que en el mismo bloque (una sola transacción) se sacan de la partición por defecto, se crea la del
+    // mes y se vuelven a insertar. Si la tabla quedó sin particionar (ver schema-postgresql.sql) no se hace nada
+    public Mono<Void> ensurePartitions(Collection<LocalDateTime> startTimes) {
+        if (!partitioned) {
+            return Mono.empty();
+        }
+        TreeSet<LocalDate> months = new TreeSet<>();
+        startTimes.forEach(startAt -> months.add(startAt.toLocalDate().withDayOfMonth(1)));
+        return Flux.fromIterable(months)
+                .concatMap(month -> databaseClient.sql(createPartition(month)).then())
+                .then();
+    }
+
+    private static String createPartition(LocalDate month) {
+        String partition = TABLE + "_p" + month.format(PARTITION_SUFFIX);
+        String range = "start_at >= '" + month + "' AND start_at < '" + month.plusMonths(1) + "'";
+        return "DO $$\n"
+                + "BEGIN\n"
+                + "    IF to_regclass('" + partition + "') IS NULL AND EXISTS (SELECT 1 FROM pg_partitioned_table p\n"
+                + "            JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = '" + TABLE + "') THEN\n"
+                + "        CREATE TEMP TABLE " + TABLE + "_moving AS SELECT * FROM " + TABLE + "_default WHERE " + range + ";\n"
+                + "        DELETE FROM " + TABLE + "_default WHERE " + range + ";\n"
+                + "        CREATE TABLE " + partition + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "');\n"
+                + "        INSERT INTO " + TABLE + " SELECT * FROM " + TABLE + "_moving;\n"
+                + "        DROP TABLE " + TABLE + "_moving;\n"
+                + "    END IF;\n"
+                + "END\n"
+                + "$$";
+    }
+
+    // Copia y borra en dos sentencias; quien lo invoca las agrupa en una transacción. El borrado elimina
+    // también las inscripciones a sesiones grupales (ON DELETE CASCADE)
+    public Mono<Long> move(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql("INSERT INTO " + TABLE + " (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+                        + ", CURRENT_TIMESTAMP FROM schedule WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(copied -> databaseClient.sql("DELETE FROM schedule WHERE id IN (:ids)")
+                        .bind("ids", ids)
+                        .fetch()
+                        .rowsUpdated());
+    }
+
+    // Sesiones grupales ya terminadas; sus asistentes se han archivado o se archivarán en la siguiente pasada
+    public Mono<Long> deleteGroupSessionsEndedBefore(LocalDateTime before) {
+        return databaseClient.sql("DELETE FROM group_session WHERE end_at < :before")
+                .bind("before", before)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,68 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.Schedule;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Inserciones masivas: una sola sentencia preparada con un conjunto de parámetros por cita (R2DBC batch)
+@Repository
+@RequiredArgsConstructor
+public class ScheduleBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO schedule " +
+            "(employee_id, user_id, start_at, end_at, details, headquarters, office, in_person, group_session, created_at, updated_at, version) " +
+            "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, 0)";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<Schedule> insertAll(List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("id");
+                    for (int i = 0; i < schedules.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bind(statement, schedules.get(i));
+                    }
+                    // Un resultado por conjunto de parámetros, en el mismo orden en que se añadieron
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)));
+                })
+                .zipWithIterable(schedules, (id, schedule) -> {
+                    schedule.setId(id);
+                    schedule.setVersion(0L);
+                    return schedule;
+                });
+    }
+
+    private void bind(Statement statement, Schedule schedule) {
+        statement.bind(0, schedule.getEmployeeId());
+        statement.bind(1, schedule.getUserId());
+        statement.bind(2, schedule.getStartAt());
+        statement.bind(3, schedule.getEndAt());
+        bindNullable(statement, 4, schedule.getDetails(), String.class);
+        bindNullable(statement, 5, schedule.getHeadquarters(), String.class);
+        bindNullable(statement, 6, schedule.getOffice(), String.class);
+        bindNullable(statement, 7, schedule.getInPerson(), Boolean.class);
+        bindNullable(statement, 8, schedule.getGroupSession(), Boolean.class);
+        bindNullable(statement, 9, schedule.getCreatedAt(), LocalDateTime.class);
+        bindNullable(statement, 10, schedule.getUpdatedAt(), LocalDateTime.class);
+    }
+
+    private void bindNullable(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reactive.nexo.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Versión persistida de los listados de un empleado o de un usuario (schedule_list_version). Se incrementa con
+// una sola sentencia por clave dentro de la transacción de la escritura (INSERT ... ON CONFLICT en PostgreSQL,
+// MERGE estándar en H2), así que la fila queda bloqueada hasta el commit y dos escrituras concurrentes sobre el
+// mismo empleado o usuario nunca repiten versión. Una clave sin fila está en la versión 0
+@Repository
+public class ScheduleListVersionRepository {
+
+    public static final String EMPLOYEE = "EMPLOYEE";
+    public static final String USER = "USER";
+
+    private static final String POSTGRES_BUMP = "INSERT INTO schedule_list_version (scope_type, scope_key, version) " +
+            "VALUES (:scopeType, :scopeKey, 1) " +
+            "ON CONFLICT (scope_type, scope_key) DO UPDATE SET version = schedule_list_version.version + 1";
+
+    private static final String H2_BUMP = "MERGE INTO schedule_list_version v USING (SELECT " +
+            "CAST(:scopeType AS VARCHAR(10)) AS scope_type, CAST(:scopeKey AS BIGINT) AS scope_key) s " +
+            "ON v.scope_type = s.scope_type AND v.scope_key = s.scope_key " +
+            "WHEN MATCHED THEN UPDATE SET version = v.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (scope_type, scope_key, version) VALUES (s.scope_type, s.scope_key, 1)";
+
+    private final DatabaseClient databaseClient;
+    private final boolean postgres;
+
+    public ScheduleListVersionRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.postgres = databaseClient.getConnectionFactory().getMetadata().getName().contains("PostgreSQL");
+    }
+
+    public Mono<Long> find(String scopeType, Long scopeKey) {
+        return databaseClient.sql("SELECT version FROM schedule_list_version WHERE scope_type = :scopeType " +
+                        "AND scope_key = :scopeKey")
+                .bind("scopeType", scopeType)
+                .bind("scopeKey", scopeKey)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+    }
+
+    // Las claves se incrementan en el orden recibido: quien llama las ordena para que dos transacciones
+    // concurrentes bloqueen las filas en el mismo orden
+    public Mono<Void> bump(String scopeType, Collection<Long> scopeKeys) {
+        return Flux.fromIterable(scopeKeys)
+                .concatMap(scopeKey -> databaseClient.sql(postgres ? POSTGRES_BUMP : H2_BUMP)
+                        .bind("scopeType", scopeType)
+                        .bind("scopeKey", scopeKey)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+}
@@ -0,0 +1,43 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Eventos de la bandeja de salida de un bloque de POST /batch en una sola sentencia, como ScheduleBatchRepository
+@Repository
+@RequiredArgsConstructor
+public class ScheduleOutboxBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO schedule_outbox " +
+            "(schedule_id, event_type, payload, created_at) VALUES ($1, $2, $3, $4)";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> insertAll(List<ScheduleOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_SQL);
+                    for (int i = 0; i < events.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        ScheduleOutboxEvent event = events.get(i);
+                        statement.bind(0, event.getScheduleId());
+                        statement.bind(1, event.getEventType().name());
+                        statement.bind(2, event.getPayload());
+                        statement.bind(3, event.getCreatedAt());
+                    }
+                    return Flux.from(statement.execute()).flatMap(result -> result.getRowsUpdated());
+                })
+                .then();
+    }
+}
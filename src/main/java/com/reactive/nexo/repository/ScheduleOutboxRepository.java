@@ -0,0 +1,29 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ScheduleOutboxRepository extends R2dbcRepository<ScheduleOutboxEvent, Long> {
+
+    // Recorre el índice (published_at, id) solo por las filas pendientes
+    @Query("SELECT * FROM schedule_outbox WHERE published_at IS NULL ORDER BY id LIMIT :limit")
+    Flux<ScheduleOutboxEvent> findPending(@Param("limit") int limit);
+
+    Mono<ScheduleOutboxEvent> findFirstByPublishedAtIsNullOrderById();
+
+    @Modifying
+    @Query("UPDATE schedule_outbox SET published_at = :publishedAt WHERE id IN (:ids)")
+    Mono<Integer> markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM schedule_outbox WHERE published_at < :before")
+    Mono<Integer> deletePublishedBefore(@Param("before") LocalDateTime before);
+}
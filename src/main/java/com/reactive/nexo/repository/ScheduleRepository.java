@@ -1,5 +1,7 @@
 package com.reactive.nexo.repository;
 
+import com.reactive.nexo.dto.SchedulePageRow;
+import com.reactive.nexo.dto.ScheduleSlot;
 import com.reactive.nexo.model.Schedule;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -8,12 +10,57 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface ScheduleRepository extends R2dbcRepository<Schedule, Long> {
+
+    // Columnas de ScheduleSlot
+    String SLOT_COLUMNS = "id, employee_id, user_id, start_at, end_at, headquarters, office, in_person, group_session";
     
     Flux<Schedule> findByEmployeeId(Long employeeId);
     
     Flux<Schedule> findByUserId(Long userId);
+
+    Flux<Schedule> findByEndAtGreaterThanEqual(LocalDateTime endAt);
+
+    // Citas de una sede (y opcionalmente de una oficina) que tocan la ventana, para la agenda por sede/oficina
+    @Query("SELECT * FROM schedule WHERE headquarters = :headquarters AND " +
+           "(:office IS NULL OR office = :office) AND end_at > :from AND start_at < :to " +
+           "ORDER BY start_at, id")
+    Flux<Schedule> findByHeadquartersWithin(
+            @Param("headquarters") String headquarters,
+            @Param("office") String office,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Historial ordenado por inicio; cualquiera de los extremos de la ventana puede omitirse.
+    // Se resuelve con el índice (employee_id, start_at) / (user_id, start_at) sin ordenar en memoria
+    @Query("SELECT * FROM schedule WHERE employee_id = :employeeId AND " +
+           "(:from IS NULL OR end_at > :from) AND (:to IS NULL OR start_at < :to) " +
+           "ORDER BY start_at, id LIMIT :limit")
+    Flux<Schedule> findByEmployeeIdWithin(
+            @Param("employeeId") Long employeeId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("limit") int limit);
+
+    @Query("SELECT * FROM schedule WHERE user_id = :userId AND " +
+           "(:from IS NULL OR end_at > :from) AND (:to IS NULL OR start_at < :to) " +
+           "ORDER BY start_at, id LIMIT :limit")
+    Flux<Schedule> findByUserIdWithin(
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("limit") int limit);
+
+    // Citas de un empleado o usuario que pueden coincidir con una serie que empieza en :from (y termina en :to si es finita)
+    @Query("SELECT * FROM schedule WHERE (employee_id = :employeeId OR user_id = :userId) AND " +
+           "end_at >= :from AND (:to IS NULL OR start_at <= :to)")
+    Flux<Schedule> findForEmployeeOrUserWithin(
+            @Param("employeeId") Long employeeId,
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
     
     @Query("SELECT COUNT(*) FROM schedule WHERE employee_id = :employeeId AND " +
            "((start_at <= :startAt AND end_at > :startAt) OR " +
@@ -36,26 +83,133 @@ public interface ScheduleRepository extends R2dbcRepository<Schedule, Long> {
             @Param("startAt") LocalDateTime startAt,
             @Param("endAt") LocalDateTime endAt,
             @Param("id") Long id);
-    
-    @Query("SELECT * FROM schedule WHERE employee_id = :employeeId AND " +
-           "start_at = :startAt AND end_at = :endAt AND " +
-           "group_session = true AND " +
-           "(:id IS NULL OR id != :id)")
-    Flux<Schedule> findExactGroupSession(
-            @Param("employeeId") Long employeeId,
-            @Param("startAt") LocalDateTime startAt,
-            @Param("endAt") LocalDateTime endAt,
-            @Param("id") Long id);
 
-       Flux<Schedule> findByStartAtGreaterThanEqual(LocalDateTime startAt);
+       // Candidatas a conflicto en todas las dimensiones con una sola consulta: citas del empleado, del usuario y
+       // presenciales de la sede (headquarters nulo la omite) que pueden solapar [startAt, endAt]
+       @Query("SELECT " + SLOT_COLUMNS + " FROM schedule WHERE " +
+              "(employee_id = :employeeId OR user_id = :userId OR " +
+              "(in_person = TRUE AND headquarters = :headquarters)) AND " +
+              "start_at <= :endAt AND end_at >= :startAt")
+       Flux<ScheduleSlot> findConflictCandidates(
+               @Param("employeeId") Long employeeId,
+               @Param("userId") Long userId,
+               @Param("headquarters") String headquarters,
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt);
+
+       // Citas presenciales de varias sedes que pueden solapar la ventana, para validar lotes
+       @Query("SELECT * FROM schedule WHERE in_person = TRUE AND headquarters IN (:headquarters) AND " +
+              "start_at <= :endAt AND end_at >= :startAt")
+       Flux<Schedule> findOnSiteByHeadquartersWithin(
+               @Param("headquarters") Collection<String> headquarters,
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt);
+
+       @Query("SELECT * FROM schedule WHERE " +
+              "(:startAt IS NULL OR start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR end_at <= :endAt) " +
+              "ORDER BY start_at, id LIMIT :limit OFFSET :offset")
+       Flux<Schedule> findPage(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("limit") int limit,
+               @Param("offset") long offset);
+
+       // Candidatos para validar lotes: cualquier cita que pueda solapar la ventana [startAt, endAt]
+       @Query("SELECT * FROM schedule WHERE employee_id IN (:employeeIds) AND " +
+              "start_at <= :endAt AND end_at >= :startAt")
+       Flux<Schedule> findByEmployeeIdsWithin(
+               @Param("employeeIds") Collection<Long> employeeIds,
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt);
 
-       Flux<Schedule> findByEndAtLessThanEqual(LocalDateTime endAt);
+       @Query("SELECT * FROM schedule WHERE user_id IN (:userIds) AND " +
+              "start_at <= :endAt AND end_at >= :startAt")
+       Flux<Schedule> findByUserIdsWithin(
+               @Param("userIds") Collection<Long> userIds,
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt);
 
-       Flux<Schedule> findByStartAtGreaterThanEqualAndEndAtLessThanEqual(LocalDateTime startAt, LocalDateTime endAt);
+       @Query("SELECT s.*, COUNT(*) OVER() AS total_count FROM schedule s WHERE " +
+              "(:startAt IS NULL OR s.start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR s.end_at <= :endAt) " +
+              "ORDER BY s.start_at, s.id LIMIT :limit OFFSET :offset")
+       Flux<SchedulePageRow> findPageWithTotal(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("limit") int limit,
+               @Param("offset") long offset);
+
+       @Query("SELECT * FROM schedule WHERE " +
+              "(:startAt IS NULL OR start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR end_at <= :endAt) AND " +
+              "(start_at, id) > (:cursorStartAt, :cursorId) " +
+              "ORDER BY start_at, id LIMIT :limit")
+       Flux<Schedule> findPageAfter(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("cursorStartAt") LocalDateTime cursorStartAt,
+               @Param("cursorId") Long cursorId,
+               @Param("limit") int limit);
+
+       // Variantes de view=slot: solo las columnas de ScheduleSlot, sin leer 'details' ni las fechas de auditoría
+       @Query("SELECT " + SLOT_COLUMNS + " FROM schedule WHERE employee_id = :employeeId AND " +
+              "(:from IS NULL OR end_at > :from) AND (:to IS NULL OR start_at < :to) " +
+              "ORDER BY start_at, id LIMIT :limit")
+       Flux<ScheduleSlot> findSlotsByEmployeeIdWithin(
+               @Param("employeeId") Long employeeId,
+               @Param("from") LocalDateTime from,
+               @Param("to") LocalDateTime to,
+               @Param("limit") int limit);
+
+       @Query("SELECT " + SLOT_COLUMNS + " FROM schedule WHERE user_id = :userId AND " +
+              "(:from IS NULL OR end_at > :from) AND (:to IS NULL OR start_at < :to) " +
+              "ORDER BY start_at, id LIMIT :limit")
+       Flux<ScheduleSlot> findSlotsByUserIdWithin(
+               @Param("userId") Long userId,
+               @Param("from") LocalDateTime from,
+               @Param("to") LocalDateTime to,
+               @Param("limit") int limit);
+
+       @Query("SELECT " + SLOT_COLUMNS + " FROM schedule WHERE " +
+              "(:startAt IS NULL OR start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR end_at <= :endAt) " +
+              "ORDER BY start_at, id LIMIT :limit OFFSET :offset")
+       Flux<ScheduleSlot> findSlotPage(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("limit") int limit,
+               @Param("offset") long offset);
+
+       @Query("SELECT " + SLOT_COLUMNS + ", COUNT(*) OVER() AS total_count FROM schedule WHERE " +
+              "(:startAt IS NULL OR start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR end_at <= :endAt) " +
+              "ORDER BY start_at, id LIMIT :limit OFFSET :offset")
+       Flux<SchedulePageRow> findSlotPageWithTotal(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("limit") int limit,
+               @Param("offset") long offset);
+
+       @Query("SELECT " + SLOT_COLUMNS + " FROM schedule WHERE " +
+              "(:startAt IS NULL OR start_at >= :startAt) AND " +
+              "(:endAt IS NULL OR end_at <= :endAt) AND " +
+              "(start_at, id) > (:cursorStartAt, :cursorId) " +
+              "ORDER BY start_at, id LIMIT :limit")
+       Flux<ScheduleSlot> findSlotPageAfter(
+               @Param("startAt") LocalDateTime startAt,
+               @Param("endAt") LocalDateTime endAt,
+               @Param("cursorStartAt") LocalDateTime cursorStartAt,
+               @Param("cursorId") Long cursorId,
+               @Param("limit") int limit);
 
        Mono<Long> countByStartAtGreaterThanEqual(LocalDateTime startAt);
 
        Mono<Long> countByEndAtLessThanEqual(LocalDateTime endAt);
 
        Mono<Long> countByStartAtGreaterThanEqualAndEndAtLessThanEqual(LocalDateTime startAt, LocalDateTime endAt);
+
+       // Estimación del planificador de PostgreSQL; devuelve -1 si la tabla nunca fue analizada
+       @Query("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'schedule'")
+       Mono<Long> estimateCount();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.ScheduleSeriesOverride;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ScheduleSeriesOverrideRepository extends R2dbcRepository<ScheduleSeriesOverride, Long> {
+
+    Flux<ScheduleSeriesOverride> findBySeriesIdIn(Collection<Long> seriesIds);
+
+    Mono<ScheduleSeriesOverride> findBySeriesIdAndOriginalStartAt(Long seriesId, LocalDateTime originalStartAt);
+}
@@ -0,0 +1,66 @@
+package com.reactive.nexo.repository;
+
+import com.reactive.nexo.model.ScheduleSeries;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ScheduleSeriesRepository extends R2dbcRepository<ScheduleSeries, Long> {
+
+    // Series activas en la ventana: empezaron antes de su fin y no terminaron antes de su inicio
+    @Query("SELECT * FROM schedule_series WHERE employee_id = :employeeId AND " +
+           "start_at <= :to AND (last_end_at IS NULL OR last_end_at >= :from)")
+    Flux<ScheduleSeries> findActiveForEmployee(
+            @Param("employeeId") Long employeeId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT * FROM schedule_series WHERE user_id = :userId AND " +
+           "start_at <= :to AND (last_end_at IS NULL OR last_end_at >= :from)")
+    Flux<ScheduleSeries> findActiveForUser(
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT * FROM schedule_series WHERE employee_id IN (:employeeIds) AND " +
+           "start_at <= :to AND (last_end_at IS NULL OR last_end_at >= :from)")
+    Flux<ScheduleSeries> findActiveForEmployees(
+            @Param("employeeIds") Collection<Long> employeeIds,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Series de una sede (y opcionalmente de una oficina), para la agenda por sede/oficina
+    @Query("SELECT * FROM schedule_series WHERE headquarters = :headquarters AND " +
+           "(:office IS NULL OR office = :office) AND " +
+           "start_at <= :to AND (last_end_at IS NULL OR last_end_at >= :from)")
+    Flux<ScheduleSeries> findActiveForHeadquarters(
+            @Param("headquarters") String headquarters,
+            @Param("office") String office,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT * FROM schedule_series WHERE " +
+           "(employee_id IN (:employeeIds) OR user_id IN (:userIds)) AND " +
+           "start_at <= :to AND (last_end_at IS NULL OR last_end_at >= :from)")
+    Flux<ScheduleSeries> findActiveForEmployeesOrUsers(
+            @Param("employeeIds") Collection<Long> employeeIds,
+            @Param("userIds") Collection<Long> userIds,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Series que coinciden en algún momento con una serie que empieza en :from (y termina en :to si es finita)
+    @Query("SELECT * FROM schedule_series WHERE (employee_id = :employeeId OR user_id = :userId) AND " +
+           "(last_end_at IS NULL OR last_end_at >= :from) AND " +
+           "(:to IS NULL OR start_at <= :to) AND " +
+           "(:excludeId IS NULL OR id != :excludeId)")
+    Flux<ScheduleSeries> findConcurrentSeries(
+            @Param("employeeId") Long employeeId,
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("excludeId") Long excludeId);
+}
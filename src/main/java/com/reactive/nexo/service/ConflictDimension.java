@@ -0,0 +1,38 @@
+package com.reactive.nexo.service;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Recursos que ocupa una cita. Cada uno aporta su motivo para la métrica de conflictos y su mensaje de rechazo
+public enum ConflictDimension {
+    EMPLOYEE("employee", "Employee has overlapping schedule"),
+    USER("user", "User has overlapping schedule"),
+    // Otra cita presencial en la misma oficina de la sede (si la sede tiene oficinas exclusivas)
+    OFFICE("office", "Office is already booked"),
+    // Citas presenciales simultáneas en la sede por encima de su capacidad
+    HEADQUARTERS("headquarters", "Headquarters capacity exceeded");
+
+    private final String reason;
+    private final String message;
+
+    ConflictDimension(String reason, String message) {
+        this.reason = reason;
+        this.message = message;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Un único mensaje con todas las dimensiones en conflicto, en el orden de la enumeración
+    public static String describe(Set<ConflictDimension> violated) {
+        return violated.stream()
+                .sorted()
+                .map(ConflictDimension::getMessage)
+                .collect(Collectors.joining("; "));
+    }
+}
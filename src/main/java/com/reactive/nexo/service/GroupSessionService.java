@@ -0,0 +1,135 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.GroupSession;
+import com.reactive.nexo.model.GroupSessionAttendee;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.GroupSessionAttendeeRepository;
+import com.reactive.nexo.repository.GroupSessionRepository;
+import com.reactive.nexo.repository.ScheduleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Sesiones grupales como entidad propia: una fila por empleado y franja con el aforo y un contador de
+// asistentes. La admisión es una búsqueda por clave única más un UPDATE condicionado al aforo, sin recorrer
+// las citas de los demás asistentes. Las operaciones de escritura se ejecutan dentro de la transacción de
+// ScheduleService junto con el guardado de la cita.
+@Service
+public class GroupSessionService {
+
+    private final GroupSessionRepository sessionRepository;
+    private final GroupSessionAttendeeRepository attendeeRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleMetrics metrics;
+    private final int defaultCapacity;
+
+    public GroupSessionService(GroupSessionRepository sessionRepository,
+                               GroupSessionAttendeeRepository attendeeRepository,
+                               ScheduleRepository scheduleRepository,
+                               ScheduleMetrics metrics,
+                               @Value("${schedule.group-session.default-capacity:50}") int defaultCapacity) {
+        this.sessionRepository = sessionRepository;
+        this.attendeeRepository = attendeeRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.metrics = metrics;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    public Mono<GroupSession> getById(Long id) {
+        return sessionRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Group session not found")));
+    }
+
+    public Flux<GroupSessionAttendee> getAttendees(Long id) {
+        return getById(id).thenMany(attendeeRepository.findByGroupSessionIdOrderById(id));
+    }
+
+    public Mono<GroupSession> updateCapacity(Long id, Integer capacity) {
+        if (capacity == null || capacity < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "capacity must be positive"));
+        }
+        return getById(id)
+                .flatMap(session -> sessionRepository.updateCapacity(id, capacity))
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "capacity is below the current number of attendees"))
+                        : sessionRepository.findById(id));
+    }
+
+    public Mono<GroupSession> findSession(Long employeeId, LocalDateTime startAt, LocalDateTime endAt) {
+        return sessionRepository.findByEmployeeIdAndStartAtAndEndAt(employeeId, startAt, endAt);
+    }
+
+    // Ocupa una plaza de una sesión existente y guarda la cita del asistente
+    public Mono<Schedule> admit(GroupSession session, Schedule attendee) {
+        return sessionRepository.reserveSeat(session.getId())
+                .flatMap(reserved -> {
+                    if (reserved == 0) {
+                        metrics.conflict("capacity", true);
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Group session is full"));
+                    }
+                    return scheduleRepository.save(attendee);
+                })
+                .flatMap(saved -> enroll(session.getId(), saved));
+    }
+
+    // Abre una sesión en una franja libre del empleado con el primer asistente ya inscrito
+    public Mono<Schedule> open(Schedule attendee, Integer capacity) {
+        LocalDateTime now = LocalDateTime.now();
+        GroupSession session = new GroupSession(null, attendee.getEmployeeId(), attendee.getStartAt(),
+                attendee.getEndAt(), capacity != null ? capacity : defaultCapacity, 1, now, now);
+        return sessionRepository.save(session)
+                .flatMap(saved -> scheduleRepository.save(attendee)
+                        .flatMap(schedule -> enroll(saved.getId(), schedule)));
+    }
+
+    // Libera la plaza de la cita y elimina la sesión si era el último asistente; no hace nada si la cita
+    // no pertenece a ninguna sesión
+    public Mono<Void> leave(Schedule attendee) {
+        return attendeeRepository.findByScheduleId(attendee.getId())
+                .flatMap(enrollment -> attendeeRepository.delete(enrollment)
+                        .then(sessionRepository.releaseSeat(enrollment.getGroupSessionId()))
+                        .then(sessionRepository.deleteIfEmpty(enrollment.getGroupSessionId())))
+                .then();
+    }
+
+    // Registra como sesiones citas grupales ya guardadas (datos de ejemplo); el aforo nunca queda por debajo
+    // de los asistentes existentes
+    public Flux<GroupSession> adopt(Collection<Schedule> attendees) {
+        Map<Slot, List<Schedule>> bySession = attendees.stream()
+                .filter(schedule -> Boolean.TRUE.equals(schedule.getGroupSession()))
+                .collect(Collectors.groupingBy(
+                        schedule -> new Slot(schedule.getEmployeeId(), schedule.getStartAt(), schedule.getEndAt()),
+                        LinkedHashMap::new, Collectors.toList()));
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(bySession.values())
+                .concatMap(group -> {
+                    Schedule first = group.get(0);
+                    GroupSession session = new GroupSession(null, first.getEmployeeId(), first.getStartAt(),
+                            first.getEndAt(), Math.max(group.size(), defaultCapacity), group.size(), now, now);
+                    return sessionRepository.save(session)
+                            .flatMap(saved -> Flux.fromIterable(group)
+                                    .concatMap(schedule -> enroll(saved.getId(), schedule))
+                                    .then(Mono.just(saved)));
+                });
+    }
+
+    private Mono<Schedule> enroll(Long sessionId, Schedule schedule) {
+        return attendeeRepository.save(new GroupSessionAttendee(null, sessionId, schedule.getUserId(),
+                        schedule.getId(), LocalDateTime.now()))
+                .thenReturn(schedule);
+    }
+
+    private record Slot(Long employeeId, LocalDateTime startAt, LocalDateTime endAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+// Publicador en memoria para un único nodo (y para pruebas): entrega cada evento a los suscriptores locales.
+// Sin suscriptores los eventos se descartan, igual que haría un topic sin consumidores
+public class LocalScheduleEventPublisher implements ScheduleEventPublisher {
+
+    private final Sinks.Many<ScheduleOutboxEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<Void> publish(List<ScheduleOutboxEvent> events) {
+        return Mono.fromRunnable(() -> events.forEach(event ->
+                sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)))));
+    }
+
+    public Flux<ScheduleOutboxEvent> events() {
+        return sink.asFlux();
+    }
+}
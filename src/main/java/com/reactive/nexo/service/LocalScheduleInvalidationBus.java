@@ -0,0 +1,23 @@
+package com.reactive.nexo.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+// Bus en memoria para un único nodo (y para pruebas): entrega cada invalidación a los suscriptores locales
+public class LocalScheduleInvalidationBus implements ScheduleInvalidationBus {
+
+    private final Sinks.Many<ScheduleInvalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public void publish(ScheduleInvalidation invalidation) {
+        // Varios hilos pueden publicar a la vez; se reintenta mientras otro emisor tenga el sink
+        sink.emitNext(invalidation, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    @Override
+    public Flux<ScheduleInvalidation> events() {
+        return sink.asFlux();
+    }
+}
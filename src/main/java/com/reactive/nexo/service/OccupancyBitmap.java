@@ -0,0 +1,77 @@
+package com.reactive.nexo.service;
+
+// Mapa de ocupación de un recurso: un bit por franja de tiempo sobre un long[] sin objetos intermedios
+final class OccupancyBitmap {
+
+    private static final int WORD_BITS = 64;
+
+    private final long[] words;
+    private final int size;
+
+    OccupancyBitmap(int size) {
+        this.size = size;
+        this.words = new long[(size + WORD_BITS - 1) / WORD_BITS];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Marca como ocupadas las franjas [from, to)
+    void set(int from, int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(size, to);
+        if (start >= end) {
+            return;
+        }
+        int firstWord = start / WORD_BITS;
+        int lastWord = (end - 1) / WORD_BITS;
+        long firstMask = -1L << (start % WORD_BITS);
+        long lastMask = -1L >>> (WORD_BITS - 1 - (end - 1) % WORD_BITS);
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+
+    // Primera franja libre desde 'from', o size si no hay ninguna
+    int nextClear(int from) {
+        if (from >= size) {
+            return size;
+        }
+        int wordIndex = from / WORD_BITS;
+        long word = ~words[wordIndex] & (-1L << (from % WORD_BITS));
+        while (true) {
+            if (word != 0) {
+                return Math.min(size, wordIndex * WORD_BITS + Long.numberOfTrailingZeros(word));
+            }
+            if (++wordIndex == words.length) {
+                return size;
+            }
+            word = ~words[wordIndex];
+        }
+    }
+
+    // Primera franja ocupada desde 'from', o size si no hay ninguna
+    int nextSet(int from) {
+        if (from >= size) {
+            return size;
+        }
+        int wordIndex = from / WORD_BITS;
+        long word = words[wordIndex] & (-1L << (from % WORD_BITS));
+        while (true) {
+            if (word != 0) {
+                return Math.min(size, wordIndex * WORD_BITS + Long.numberOfTrailingZeros(word));
+            }
+            if (++wordIndex == words.length) {
+                return size;
+            }
+            word = words[wordIndex];
+        }
+    }
+}
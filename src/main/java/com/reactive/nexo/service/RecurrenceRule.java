@@ -0,0 +1,146 @@
+package com.reactive.nexo.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Subconjunto de RRULE (RFC 5545): FREQ=DAILY|WEEKLY, INTERVAL, COUNT o UNTIL, y BYDAY para series semanales
+@Getter
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY }
+
+    private static final int MAX_INTERVAL = 52;
+    private static final DateTimeFormatter BASIC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+            "MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY, "WE", DayOfWeek.WEDNESDAY, "TH", DayOfWeek.THURSDAY,
+            "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY, "SU", DayOfWeek.SUNDAY);
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Integer count;
+    private final LocalDateTime until;
+    private final List<DayOfWeek> byDay;
+
+    private RecurrenceRule(Frequency frequency, int interval, Integer count, LocalDateTime until, List<DayOfWeek> byDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDay = byDay;
+    }
+
+    public static RecurrenceRule parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw invalid("recurrence is required");
+        }
+        String rule = value.trim().toUpperCase(Locale.ROOT);
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring("RRULE:".length());
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Integer count = null;
+        LocalDateTime until = null;
+        List<DayOfWeek> byDay = new ArrayList<>();
+
+        for (String part : rule.split(";")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw invalid("Malformed recurrence part: " + part);
+            }
+            try {
+                switch (pair[0]) {
+                    case "FREQ" -> frequency = Frequency.valueOf(pair[1]);
+                    case "INTERVAL" -> interval = Integer.parseInt(pair[1]);
+                    case "COUNT" -> count = Integer.parseInt(pair[1]);
+                    case "UNTIL" -> until = parseUntil(pair[1]);
+                    case "BYDAY" -> {
+                        for (String day : pair[1].split(",")) {
+                            DayOfWeek dayOfWeek = DAYS.get(day);
+                            if (dayOfWeek == null) {
+                                throw invalid("Unsupported BYDAY value: " + day);
+                            }
+                            byDay.add(dayOfWeek);
+                        }
+                    }
+                    default -> throw invalid("Unsupported recurrence part: " + pair[0]);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw invalid("Invalid recurrence value: " + part);
+            }
+        }
+
+        if (frequency == null) {
+            throw invalid("FREQ is required");
+        }
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw invalid("INTERVAL must be between 1 and " + MAX_INTERVAL);
+        }
+        if (count != null && count < 1) {
+            throw invalid("COUNT must be positive");
+        }
+        if (count != null && until != null) {
+            throw invalid("COUNT and UNTIL cannot be combined");
+        }
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw invalid("BYDAY is only supported for WEEKLY recurrences");
+        }
+        List<DayOfWeek> days = byDay.stream().distinct().sorted().toList();
+        return new RecurrenceRule(frequency, interval, count, until, days);
+    }
+
+    public int periodDays() {
+        return frequency == Frequency.DAILY ? interval : 7 * interval;
+    }
+
+    public boolean isBounded() {
+        return count != null || until != null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency).append(";INTERVAL=").append(interval);
+        if (count != null) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            rule.append(";UNTIL=").append(until.format(BASIC_DATE_TIME));
+        }
+        if (!byDay.isEmpty()) {
+            rule.append(";BYDAY=").append(byDay.stream()
+                    .map(day -> day.name().substring(0, 2))
+                    .collect(Collectors.joining(",")));
+        }
+        return rule.toString();
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        String until = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        if (until.contains("-")) {
+            return LocalDateTime.parse(until);
+        }
+        if (until.contains("T")) {
+            return LocalDateTime.parse(until, BASIC_DATE_TIME);
+        }
+        // Solo fecha: la serie incluye todo ese día
+        return LocalDate.parse(until, BASIC_DATE).atTime(23, 59, 59);
+    }
+
+    private static ResponseStatusException invalid(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+}
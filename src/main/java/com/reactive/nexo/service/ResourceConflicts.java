@@ -0,0 +1,92 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.config.ScheduleResourceProperties;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Reglas de conflicto de todas las dimensiones en un solo recorrido sobre las citas candidatas: las del
+// empleado, las del usuario y las presenciales de la sede. El origen de las candidatas (índice en memoria,
+// consulta combinada o el bloque de una creación masiva) no cambia el resultado
+final class ResourceConflicts {
+
+    private ResourceConflicts() {
+    }
+
+    static Set<ConflictDimension> evaluate(ScheduleInterval candidate, Long excludeId, Set<ConflictDimension> dimensions,
+                                           Collection<ScheduleInterval> existing, ScheduleResourceProperties resources) {
+        Set<ConflictDimension> violated = EnumSet.noneOf(ConflictDimension.class);
+        ScheduleResourceProperties.Rules rules = candidate.onSite()
+                ? resources.forHeadquarters(candidate.headquarters())
+                : null;
+        List<ScheduleInterval> onSite = new ArrayList<>();
+        for (ScheduleInterval other : existing) {
+            if (excludeId != null && excludeId.equals(other.id())
+                    || !ScheduleOverlap.overlaps(other.startAt(), other.endAt(), candidate.startAt(), candidate.endAt())) {
+                continue;
+            }
+            if (dimensions.contains(ConflictDimension.EMPLOYEE) && candidate.employeeId().equals(other.employeeId())) {
+                violated.add(ConflictDimension.EMPLOYEE);
+            }
+            if (dimensions.contains(ConflictDimension.USER) && candidate.userId().equals(other.userId())) {
+                violated.add(ConflictDimension.USER);
+            }
+            if (rules != null && other.onSite() && candidate.headquarters().equals(other.headquarters())) {
+                if (dimensions.contains(ConflictDimension.OFFICE) && rules.isOfficeExclusive()
+                        && candidate.office() != null && candidate.office().equals(other.office())
+                        && !sameSession(candidate, other)) {
+                    violated.add(ConflictDimension.OFFICE);
+                }
+                onSite.add(other);
+            }
+        }
+        if (rules != null && rules.getCapacity() != null && dimensions.contains(ConflictDimension.HEADQUARTERS)
+                && peakOccupancy(onSite, candidate) >= rules.getCapacity()) {
+            violated.add(ConflictDimension.HEADQUARTERS);
+        }
+        return violated;
+    }
+
+    // Los asistentes de una sesión grupal comparten oficina: misma franja exacta del mismo empleado
+    private static boolean sameSession(ScheduleInterval candidate, ScheduleInterval other) {
+        return candidate.groupSession() && other.groupSession()
+                && candidate.employeeId().equals(other.employeeId())
+                && candidate.startAt().equals(other.startAt())
+                && candidate.endAt().equals(other.endAt());
+    }
+
+    // Máximo de citas simultáneas dentro de la franja del candidato, con barrido de inicios y fines recortados
+    // a la franja. Un fin igual a un inicio libera la plaza antes de ocuparla (citas consecutivas)
+    private static int peakOccupancy(List<ScheduleInterval> onSite, ScheduleInterval candidate) {
+        int size = onSite.size();
+        if (size == 0 || !candidate.endAt().isAfter(candidate.startAt())) {
+            return size;
+        }
+        LocalDateTime[] starts = new LocalDateTime[size];
+        LocalDateTime[] ends = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            ScheduleInterval other = onSite.get(i);
+            starts[i] = other.startAt().isAfter(candidate.startAt()) ? other.startAt() : candidate.startAt();
+            ends[i] = other.endAt().isBefore(candidate.endAt()) ? other.endAt() : candidate.endAt();
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+        int peak = 0;
+        int current = 0;
+        int released = 0;
+        for (LocalDateTime start : starts) {
+            while (released < size && !ends[released].isAfter(start)) {
+                current--;
+                released++;
+            }
+            current++;
+            peak = Math.max(peak, current);
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,254 @@
+package com.reactive.nexo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.nexo.dto.AgendaDayView;
+import com.reactive.nexo.dto.AgendaEntry;
+import com.reactive.nexo.dto.AgendaScope;
+import com.reactive.nexo.model.AgendaDay;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.model.ScheduleSeries;
+import com.reactive.nexo.repository.AgendaDayRepository;
+import com.reactive.nexo.repository.AgendaDayStore;
+import com.reactive.nexo.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+// Modelo de lectura de agendas: un registro por empleado, sede u oficina y día con las citas ya serializadas.
+// Un día reúne las citas de la tabla schedule y las ocurrencias de las series recurrentes (con sus excepciones).
+// Cada escritura de ScheduleService recalcula solo los días afectados; las de series y excepciones, y el
+// archivador, recalculan los días ya guardados de sus vistas (los demás se calculan en su primera lectura). Un
+// recálculo toma su número de secuencia antes de leer las citas y solo sustituye un día guardado por uno
+// anterior, así que el día guardado siempre refleja la última escritura aunque los recálculos terminen
+// desordenados. Los días que aún no existen (datos anteriores a la tabla) se calculan y guardan en la primera
+// lectura.
+@Service
+@Slf4j
+public class ScheduleAgendaService {
+
+    static final String OFFICE_SEPARATOR = "|";
+
+    private static final Comparator<Schedule> BY_START = Comparator.comparing(Schedule::getStartAt);
+
+    private final AgendaDayRepository agendaRepository;
+    private final AgendaDayStore agendaStore;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleSeriesService seriesService;
+    private final ObjectMapper objectMapper;
+    private final int maxDays;
+
+    public ScheduleAgendaService(AgendaDayRepository agendaRepository,
+                                 AgendaDayStore agendaStore,
+                                 ScheduleRepository scheduleRepository,
+                                 ScheduleSeriesService seriesService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${schedule.agenda.max-days:31}") int maxDays) {
+        this.agendaRepository = agendaRepository;
+        this.agendaStore = agendaStore;
+        this.scheduleRepository = scheduleRepository;
+        this.seriesService = seriesService;
+        this.objectMapper = objectMapper;
+        this.maxDays = maxDays;
+    }
+
+    // Día de agenda identificado por su vista y su fecha
+    public record Bucket(AgendaScope scope, Long employeeId, String headquarters, String office, LocalDate day) {
+
+        String key() {
+            return switch (scope) {
+                case EMPLOYEE -> employeeId.toString();
+                case HEADQUARTERS -> headquarters;
+                case OFFICE -> headquarters + OFFICE_SEPARATOR + office;
+            };
+        }
+
+        Bucket on(LocalDate otherDay) {
+            return new Bucket(scope, employeeId, headquarters, office, otherDay);
+        }
+    }
+
+    public Flux<AgendaDayView> getEmployeeAgenda(Long employeeId, LocalDate date, int days) {
+        return validateRange(date, days)
+                .thenMany(Flux.defer(() -> Flux.range(0, days)
+                        .map(offset -> new Bucket(AgendaScope.EMPLOYEE, employeeId, null, null, date.plusDays(offset)))
+                        .collectList()
+                        .flatMapMany(this::read)));
+    }
+
+    public Flux<AgendaDayView> getHeadquartersAgenda(String headquarters, String office, LocalDate date, int days) {
+        if (headquarters == null || headquarters.isBlank()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "headquarters is required"));
+        }
+        AgendaScope scope = office == null || office.isBlank() ? AgendaScope.HEADQUARTERS : AgendaScope.OFFICE;
+        return validateRange(date, days)
+                .thenMany(Flux.defer(() -> Flux.range(0, days)
+                        .map(offset -> new Bucket(scope, null, headquarters,
+                                scope == AgendaScope.OFFICE ? office : null, date.plusDays(offset)))
+                        .collectList()
+                        .flatMapMany(this::read)));
+    }
+
+    // Días de agenda en los que aparece la cita: su empleado, su sede y su oficina, por cada día que toca
+    public Set<Bucket> bucketsOf(Schedule schedule) {
+        Set<Bucket> buckets = new LinkedHashSet<>();
+        if (schedule.getStartAt() == null || schedule.getEndAt() == null) {
+            return buckets;
+        }
+        LocalDate last = schedule.getEndAt().isAfter(schedule.getStartAt())
+                ? schedule.getEndAt().minusNanos(1).toLocalDate()
+                : schedule.getStartAt().toLocalDate();
+        List<Bucket> views = views(schedule.getEmployeeId(), schedule.getHeadquarters(), schedule.getOffice());
+        for (LocalDate day = schedule.getStartAt().toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            for (Bucket view : views) {
+                buckets.add(view.on(day));
+            }
+        }
+        return buckets;
+    }
+
+    // Vistas (sin fecha) en las que aparece una cita u ocurrencia
+    private static List<Bucket> views(Long employeeId, String headquarters, String office) {
+        List<Bucket> views = new ArrayList<>();
+        views.add(new Bucket(AgendaScope.EMPLOYEE, employeeId, null, null, null));
+        if (headquarters != null) {
+            views.add(new Bucket(AgendaScope.HEADQUARTERS, null, headquarters, null, null));
+            if (office != null) {
+                views.add(new Bucket(AgendaScope.OFFICE, null, headquarters, office, null));
+            }
+        }
+        return views;
+    }
+
+    public Mono<Void> refresh(Schedule schedule) {
+        return refresh(bucketsOf(schedule));
+    }
+
+    // Recalcula los días indicados; un fallo se registra sin afectar a la escritura que lo provocó
+    public Mono<Void> refresh(Collection<Bucket> buckets) {
+        return Flux.fromIterable(buckets)
+                .flatMap(bucket -> rebuild(bucket)
+                        .onErrorResume(e -> {
+                            log.warn("Could not refresh agenda {} {} {}: {}",
+                                    bucket.scope(), bucket.key(), bucket.day(), e.getMessage());
+                            return Mono.empty();
+                        }), 4)
+                .then();
+    }
+
+    // Días ya guardados de la serie entre from y to (to null: serie sin fin). Se llama tras confirmar la escritura
+    // de la serie o de una excepción, con el intervalo afectado
+    public Mono<Void> refreshSeries(ScheduleSeries series, LocalDateTime from, LocalDateTime to) {
+        LocalDate first = from.toLocalDate();
+        LocalDate end = to == null ? null : to.toLocalDate().plusDays(1);
+        return Flux.fromIterable(views(series.getEmployeeId(), series.getHeadquarters(), series.getOffice()))
+                .concatMap(view -> agendaStore.storedDays(view.scope().name(), view.key(), first, end).map(view::on))
+                .collectList()
+                .flatMap(this::refresh)
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh the agenda of series {}: {}", series.getId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Como refresh, pero solo los días que ya están guardados: el archivador no crea días pasados que nadie lee
+    public Mono<Void> refreshStored(Collection<Bucket> buckets) {
+        Map<Bucket, TreeSet<LocalDate>> daysByView = new LinkedHashMap<>();
+        buckets.forEach(bucket -> daysByView.computeIfAbsent(bucket.on(null), k -> new TreeSet<>())
+                .add(bucket.day()));
+        return Flux.fromIterable(daysByView.entrySet())
+                .concatMap(entry -> {
+                    Bucket view = entry.getKey();
+                    TreeSet<LocalDate> days = entry.getValue();
+                    return agendaStore.storedDays(view.scope().name(), view.key(), days.first(),
+                                    days.last().plusDays(1))
+                            .filter(days::contains)
+                            .map(view::on);
+                })
+                .collectList()
+                .flatMap(this::refresh)
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh stored agenda days: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Flux<AgendaDayView> read(List<Bucket> buckets) {
+        Bucket first = buckets.get(0);
+        LocalDate from = first.day();
+        LocalDate to = buckets.get(buckets.size() - 1).day().plusDays(1);
+        return agendaRepository.findDays(first.scope().name(), first.key(), from, to)
+                .collectMap(AgendaDay::getAgendaDate, Function.identity())
+                .flatMapMany(stored -> Flux.fromIterable(buckets)
+                        .concatMap(bucket -> {
+                            AgendaDay day = stored.get(bucket.day());
+                            return day != null ? Mono.just(day) : rebuild(bucket);
+                        }))
+                .map(day -> new AgendaDayView(day.getScopeType(), day.getScopeKey(), day.getAgendaDate(),
+                        day.getEntryCount(), day.getEntries()));
+    }
+
+    private Mono<AgendaDay> rebuild(Bucket bucket) {
+        LocalDateTime from = bucket.day().atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        Flux<Schedule> schedules = switch (bucket.scope()) {
+            case EMPLOYEE -> Flux.mergeComparing(BY_START,
+                    scheduleRepository.findByEmployeeIdWithin(bucket.employeeId(), from, to, Integer.MAX_VALUE),
+                    seriesService.expandForEmployee(bucket.employeeId(), from, to));
+            case HEADQUARTERS -> Flux.mergeComparing(BY_START,
+                    scheduleRepository.findByHeadquartersWithin(bucket.headquarters(), null, from, to),
+                    seriesService.expandForHeadquarters(bucket.headquarters(), null, from, to));
+            case OFFICE -> Flux.mergeComparing(BY_START,
+                    scheduleRepository.findByHeadquartersWithin(bucket.headquarters(), bucket.office(), from, to),
+                    seriesService.expandForHeadquarters(bucket.headquarters(), bucket.office(), from, to));
+        };
+        return agendaStore.nextBuild()
+                .flatMap(build -> schedules.map(AgendaEntry::of)
+                        .collectList()
+                        .flatMap(entries -> store(bucket, entries, build)))
+                // En H2 el MERGE de dos nodos que crean el mismo día a la vez puede chocar: se reintenta
+                .retryWhen(Retry.max(1).filter(DataIntegrityViolationException.class::isInstance));
+    }
+
+    private Mono<AgendaDay> store(Bucket bucket, List<AgendaEntry> entries, long build) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        AgendaDay day = new AgendaDay(null, bucket.scope(), bucket.key(), bucket.day(), entries.size(), json,
+                LocalDateTime.now(), build);
+        return agendaStore.upsert(day).thenReturn(day);
+    }
+
+    private Mono<Void> validateRange(LocalDate date, int days) {
+        if (date == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "date is required"));
+        }
+        if (days < 1 || days > maxDays) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "days must be between 1 and " + maxDays));
+        }
+        return Mono.empty();
+    }
+}
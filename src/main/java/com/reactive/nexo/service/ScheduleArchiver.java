@@ -0,0 +1,132 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleArchiveRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Mueve a schedule_archive las citas que terminaron hace más de retention-days, por lotes y cada lote en su
+// propia transacción, para que la tabla principal y sus índices solo contengan citas recientes y futuras.
+// El índice de conflictos ya ignora citas con más de horizon-days, así que el archivo no cambia ninguna
+// validación mientras la retención sea mayor. Con varios nodos basta con habilitarlo en uno
+@Component
+@Slf4j
+public class ScheduleArchiver {
+
+    private final ScheduleArchiveRepository archiveRepository;
+    private final ScheduleConflictIndex conflictIndex;
+    private final ScheduleCache scheduleCache;
+    private final ScheduleVersions scheduleVersions;
+    private final ScheduleAgendaService agendaService;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration interval;
+    private Disposable subscription;
+
+    public ScheduleArchiver(ScheduleArchiveRepository archiveRepository,
+                            ScheduleConflictIndex conflictIndex,
+                            ScheduleCache scheduleCache,
+                            ScheduleVersions scheduleVersions,
+                            ScheduleAgendaService agendaService,
+                            TransactionalOperator transactionalOperator,
+                            @Value("${schedule.archive.enabled:true}") boolean enabled,
+                            @Value("${schedule.archive.retention-days:365}") long retentionDays,
+                            @Value("${schedule.archive.batch-size:1000}") int batchSize,
+                            @Value("${schedule.archive.interval:1h}") Duration interval) {
+        this.archiveRepository = archiveRepository;
+        this.conflictIndex = conflictIndex;
+        this.scheduleCache = scheduleCache;
+        this.scheduleVersions = scheduleVersions;
+        this.agendaService = agendaService;
+        this.transactionalOperator = transactionalOperator;
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+        this.interval = interval;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Schedule archival disabled on this node");
+            return;
+        }
+        subscription = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> archive()
+                        .doOnNext(moved -> {
+                            if (moved > 0) {
+                                log.info("Archived {} schedules that ended more than {} days ago", moved, retention.toDays());
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Schedule archival failed, retrying in {}: {}", interval, e.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    // Citas archivadas en esta pasada
+    public Mono<Long> archive() {
+        return Mono.defer(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            return Mono.defer(() -> archiveBatch(cutoff))
+                    .repeat()
+                    .takeUntil(moved -> moved < batchSize)
+                    .reduce(0L, Long::sum)
+                    .flatMap(total -> archiveRepository.deleteGroupSessionsEndedBefore(cutoff).thenReturn(total));
+        });
+    }
+
+    private Mono<Long> archiveBatch(LocalDateTime cutoff) {
+        return archiveRepository.findExpired(cutoff, batchSize)
+                .collectList()
+                .flatMap(expired -> {
+                    if (expired.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    List<Long> ids = expired.stream().map(Schedule::getId).toList();
+                    return archiveRepository.ensurePartitions(expired.stream().map(Schedule::getStartAt).toList())
+                            // Los listados sin historial pierden las citas movidas: su versión sube en la misma transacción
+                            .then(transactionalOperator.transactional(archiveRepository.move(ids)
+                                    .flatMap(moved -> scheduleVersions.bump(
+                                                    expired.stream().map(Schedule::getEmployeeId).toList(),
+                                                    expired.stream().map(Schedule::getUserId).toList())
+                                            .thenReturn(moved))))
+                            .doOnNext(moved -> expired.forEach(schedule -> {
+                                conflictIndex.remove(schedule.getId());
+                                scheduleCache.invalidate(schedule);
+                            }))
+                            // Los días de agenda guardados dejan de mostrar las citas archivadas
+                            .flatMap(moved -> agendaService.refreshStored(expired.stream()
+                                    .flatMap(schedule -> agendaService.bucketsOf(schedule).stream())
+                                    .toList()))
+                            .thenReturn((long) expired.size());
+                });
+    }
+}
@@ -0,0 +1,108 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.dto.EmployeeAvailability;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Búsqueda de huecos libres: una consulta por rango para todos los empleados, un mapa de bits de ocupación
+// por empleado y un recorrido por palabras de 64 franjas para encontrar huecos del tamaño pedido
+@Service
+public class ScheduleAvailabilityService {
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleSeriesService seriesService;
+    private final int slotMinutes;
+    private final long maxWindowDays;
+    private final int maxEmployees;
+
+    public ScheduleAvailabilityService(ScheduleRepository scheduleRepository,
+                                       ScheduleSeriesService seriesService,
+                                       @Value("${schedule.availability.slot-minutes:5}") int slotMinutes,
+                                       @Value("${schedule.availability.max-window-days:31}") long maxWindowDays,
+                                       @Value("${schedule.availability.max-employees:500}") int maxEmployees) {
+        this.scheduleRepository = scheduleRepository;
+        this.seriesService = seriesService;
+        this.slotMinutes = slotMinutes;
+        this.maxWindowDays = maxWindowDays;
+        this.maxEmployees = maxEmployees;
+    }
+
+    public Flux<EmployeeAvailability> findAvailability(List<Long> employeeIds, LocalDateTime from, LocalDateTime to,
+                                                       int durationMinutes, int limit) {
+        Set<Long> employees = new LinkedHashSet<>(employeeIds);
+        if (employees.isEmpty() || employees.size() > maxEmployees) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "employeeIds must contain between 1 and " + maxEmployees + " employees"));
+        }
+        if (!from.isBefore(to) || Duration.between(from, to).toDays() > maxWindowDays) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "from must be before to and the window cannot exceed " + maxWindowDays + " days"));
+        }
+        if (durationMinutes <= 0 || limit <= 0) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "duration and limit must be positive"));
+        }
+
+        // La rejilla empieza en la franja que contiene 'from' para que todos los huecos queden alineados
+        LocalDateTime origin = from.truncatedTo(ChronoUnit.MINUTES)
+                .minusMinutes(from.getMinute() % slotMinutes);
+        // Solo franjas completas antes de 'to', así ningún hueco termina fuera de la ventana
+        int slots = (int) (Duration.between(origin, to).toMinutes() / slotMinutes);
+        int slotsNeeded = (durationMinutes + slotMinutes - 1) / slotMinutes;
+
+        Map<Long, OccupancyBitmap> bitmaps = new HashMap<>();
+        for (Long employeeId : employees) {
+            bitmaps.put(employeeId, new OccupancyBitmap(slots));
+        }
+
+        return Flux.merge(scheduleRepository.findByEmployeeIdsWithin(employees, from, to),
+                        seriesService.expandForEmployees(employees, from, to))
+                .doOnNext(schedule -> occupy(bitmaps.get(schedule.getEmployeeId()), origin, schedule))
+                .thenMany(Flux.fromIterable(employees))
+                .map(employeeId -> new EmployeeAvailability(employeeId,
+                        freeSlots(bitmaps.get(employeeId), origin, from, slotsNeeded, durationMinutes, limit)));
+    }
+
+    private void occupy(OccupancyBitmap bitmap, LocalDateTime origin, Schedule schedule) {
+        if (bitmap == null) {
+            return;
+        }
+        long startMinutes = Duration.between(origin, schedule.getStartAt()).toMinutes();
+        long endMinutes = Duration.between(origin, schedule.getEndAt()).toMinutes();
+        // Una cita que toca parcialmente una franja la ocupa completa
+        long first = Math.floorDiv(startMinutes, slotMinutes);
+        long last = Math.floorDiv(endMinutes + slotMinutes - 1, slotMinutes);
+        bitmap.set((int) Math.max(0, first), (int) Math.min(bitmap.size(), last));
+    }
+
+    private List<EmployeeAvailability.Slot> freeSlots(OccupancyBitmap bitmap, LocalDateTime origin, LocalDateTime from,
+                                                      int slotsNeeded, int durationMinutes, int limit) {
+        List<EmployeeAvailability.Slot> result = new ArrayList<>();
+        // La primera franja de la rejilla puede empezar antes de 'from'; los huecos empiezan en la siguiente
+        int firstAllowed = origin.equals(from) ? 0 : 1;
+        int position = bitmap.nextClear(firstAllowed);
+        while (position < bitmap.size() && result.size() < limit) {
+            int runEnd = bitmap.nextSet(position);
+            for (int start = position; start + slotsNeeded <= runEnd && result.size() < limit; start += slotsNeeded) {
+                LocalDateTime startAt = origin.plusMinutes((long) start * slotMinutes);
+                result.add(new EmployeeAvailability.Slot(startAt, startAt.plusMinutes(durationMinutes)));
+            }
+            position = bitmap.nextClear(runEnd);
+        }
+        return result;
+    }
+}
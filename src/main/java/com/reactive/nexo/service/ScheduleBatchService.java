@@ -0,0 +1,277 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.config.ScheduleResourceProperties;
+import com.reactive.nexo.dto.CreateScheduleRequest;
+import com.reactive.nexo.dto.ScheduleBatchResult;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleBatchRepository;
+import com.reactive.nexo.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Creación masiva de citas: valida cada bloque en memoria contra una consulta por rango de empleados, otra de
+// usuarios y otra de citas presenciales de las sedes implicadas, y persiste las citas aceptadas con una única
+// sentencia por lotes
+@Service
+@Slf4j
+public class ScheduleBatchService {
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleBatchRepository scheduleBatchRepository;
+    private final ScheduleConflictIndex conflictIndex;
+    private final ScheduleBookingLocks bookingLocks;
+    private final ScheduleService scheduleService;
+    private final ScheduleSeriesService seriesService;
+    private final ScheduleCache scheduleCache;
+    private final ScheduleMetrics metrics;
+    private final ScheduleAgendaService agendaService;
+    private final ScheduleChangeStream changeStream;
+    private final ScheduleOutbox outbox;
+    private final TransactionalOperator transactionalOperator;
+    private final ScheduleResourceProperties resources;
+    private final int chunkSize;
+
+    public ScheduleBatchService(ScheduleRepository scheduleRepository,
+                                ScheduleBatchRepository scheduleBatchRepository,
+                                ScheduleConflictIndex conflictIndex,
+                                ScheduleBookingLocks bookingLocks,
+                                ScheduleService scheduleService,
+                                ScheduleSeriesService seriesService,
+                                ScheduleCache scheduleCache,
+                                ScheduleMetrics metrics,
+                                ScheduleAgendaService agendaService,
+                                ScheduleChangeStream changeStream,
+                                ScheduleOutbox outbox,
+                                TransactionalOperator transactionalOperator,
+                                ScheduleResourceProperties resources,
+                                @Value("${schedule.batch.chunk-size:500}") int chunkSize) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleBatchRepository = scheduleBatchRepository;
+        this.conflictIndex = conflictIndex;
+        this.bookingLocks = bookingLocks;
+        this.scheduleService = scheduleService;
+        this.seriesService = seriesService;
+        this.scheduleCache = scheduleCache;
+        this.metrics = metrics;
+        this.agendaService = agendaService;
+        this.changeStream = changeStream;
+        this.outbox = outbox;
+        this.transactionalOperator = transactionalOperator;
+        this.resources = resources;
+        this.chunkSize = chunkSize;
+    }
+
+    public Flux<ScheduleBatchResult> createSchedules(Flux<CreateScheduleRequest> requests) {
+        return requests.index()
+                .buffer(chunkSize)
+                .concatMap(this::processChunk);
+    }
+
+    // El bloque se procesa en el orden de entrada: los tramos de citas individuales consecutivas se validan e
+    // insertan juntos y cada plaza de sesión grupal se reserva en su posición, después de confirmar el tramo
+    // anterior y antes del siguiente. Así una petición anterior siempre gana a una posterior que choca con ella
+    private Flux<ScheduleBatchResult> processChunk(List<Tuple2<Long, CreateScheduleRequest>> chunk) {
+        int offset = chunk.get(0).getT1().intValue();
+        ScheduleBatchResult[] results = new ScheduleBatchResult[chunk.size()];
+        List<List<Pending>> runs = new ArrayList<>();
+        List<Pending> run = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            CreateScheduleRequest request = chunk.get(i).getT2();
+            int index = offset + i;
+            if (request.getEmployeeId() == null || request.getUserId() == null
+                    || request.getStartAt() == null || request.getEndAt() == null) {
+                results[i] = ScheduleBatchResult.rejected(index, HttpStatus.BAD_REQUEST.value(),
+                        "employeeId, userId, startAt and endAt are required");
+            } else if (request.getStartAt().isAfter(request.getEndAt())) {
+                results[i] = ScheduleBatchResult.rejected(index, HttpStatus.BAD_REQUEST.value(),
+                        "Start time must be before end time");
+            } else if (Boolean.TRUE.equals(request.getGroupSession())) {
+                if (!run.isEmpty()) {
+                    runs.add(run);
+                    run = new ArrayList<>();
+                }
+                runs.add(List.of(new Pending(i, index, request)));
+            } else {
+                run.add(new Pending(i, index, request));
+            }
+        }
+        if (!run.isEmpty()) {
+            runs.add(run);
+        }
+
+        return Flux.fromIterable(runs)
+                .concatMap(items -> Boolean.TRUE.equals(items.get(0).request().getGroupSession())
+                        ? createIndividually(items, results)
+                        : insertRun(items, results))
+                .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+    }
+
+    private Mono<Void> insertRun(List<Pending> pending, ScheduleBatchResult[] results) {
+        Set<Long> employeeIds = new LinkedHashSet<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<String> headquarters = new LinkedHashSet<>();
+        LocalDateTime windowStart = LocalDateTime.MAX;
+        LocalDateTime windowEnd = LocalDateTime.MIN;
+        for (Pending item : pending) {
+            employeeIds.add(item.request().getEmployeeId());
+            userIds.add(item.request().getUserId());
+            if (Boolean.TRUE.equals(item.request().getInPerson()) && item.request().getHeadquarters() != null) {
+                headquarters.add(item.request().getHeadquarters());
+            }
+            windowStart = min(windowStart, item.request().getStartAt());
+            windowEnd = max(windowEnd, item.request().getEndAt());
+        }
+        LocalDateTime from = windowStart;
+        LocalDateTime to = windowEnd;
+
+        List<Pending> accepted = new ArrayList<>();
+        return bookingLocks.withResources(employeeIds, userIds, headquarters, () ->
+                        Mono.zip(scheduleRepository.findByEmployeeIdsWithin(employeeIds, from, to).collectList(),
+                                        scheduleRepository.findByUserIdsWithin(userIds, from, to).collectList(),
+                                        headquarters.isEmpty()
+                                                ? Mono.just(List.<Schedule>of())
+                                                : scheduleRepository.findOnSiteByHeadquartersWithin(headquarters, from, to)
+                                                        .collectList(),
+                                        seriesService.conflictsFor(employeeIds, userIds, from, to))
+                                .flatMap(existing -> {
+                                    validate(pending, existing.getT1(), existing.getT2(), existing.getT3(),
+                                            existing.getT4(), results, accepted);
+                                    List<Schedule> toInsert = accepted.stream().map(Pending::schedule).toList();
+                                    // Las citas del tramo y sus eventos de la bandeja de salida en una transacción
+                                    return transactionalOperator.transactional(
+                                            scheduleBatchRepository.insertAll(toInsert).collectList()
+                                                    .flatMap(saved -> outbox.createdAll(saved).thenReturn(saved)));
+                                })
+                                .doOnNext(saved -> {
+                                    saved.forEach(conflictIndex::put);
+                                    saved.forEach(scheduleCache::invalidate);
+                                    saved.forEach(changeStream::created);
+                                    for (Pending item : accepted) {
+                                        results[item.position()] = ScheduleBatchResult.created(item.index(), item.schedule());
+                                    }
+                                })
+                                // Cada día de agenda afectado se recalcula una sola vez por tramo
+                                .flatMap(saved -> {
+                                    Set<ScheduleAgendaService.Bucket> buckets = new LinkedHashSet<>();
+                                    saved.forEach(schedule -> buckets.addAll(agendaService.bucketsOf(schedule)));
+                                    return agendaService.refresh(buckets);
+                                }))
+                // Otro nodo reservó algún hueco entre la validación y la inserción: se reintenta cita a cita
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    log.warn("Batch insert rejected by database constraint, retrying {} schedules individually", accepted.size());
+                    return createIndividually(accepted, results);
+                });
+    }
+
+    // Cita a cita a través de ScheduleService, fuera de los cerrojos del tramo. Las plazas de sesiones grupales
+    // siempre van por aquí para reservarlas contra el aforo de la sesión
+    private Mono<Void> createIndividually(List<Pending> items, ScheduleBatchResult[] results) {
+        return Flux.fromIterable(items)
+                .concatMap(item -> scheduleService.createSchedule(item.request())
+                        .map(schedule -> ScheduleBatchResult.created(item.index(), schedule))
+                        .onErrorResume(ResponseStatusException.class, error -> Mono.just(
+                                ScheduleBatchResult.rejected(item.index(), error.getStatusCode().value(), error.getReason())))
+                        .doOnNext(result -> results[item.position()] = result))
+                .then();
+    }
+
+    // Aplica en memoria las mismas reglas que ScheduleService para citas individuales, incluyendo las citas
+    // aceptadas previamente dentro del mismo bloque
+    private void validate(List<Pending> pending, List<Schedule> employeeRows, List<Schedule> userRows,
+                          List<Schedule> onSiteRows, ScheduleSeriesService.SeriesConflicts seriesConflicts,
+                          ScheduleBatchResult[] results, List<Pending> accepted) {
+        // Una fila que llega por varias consultas comparte un único intervalo para evaluarse una sola vez
+        Map<Long, ScheduleInterval> intervals = new HashMap<>();
+        Map<Long, List<ScheduleInterval>> byEmployee = group(employeeRows, intervals, ScheduleInterval::employeeId);
+        Map<Long, List<ScheduleInterval>> byUser = group(userRows, intervals, ScheduleInterval::userId);
+        Map<String, List<ScheduleInterval>> byHeadquarters = group(onSiteRows, intervals, ScheduleInterval::headquarters);
+
+        for (Pending item : pending) {
+            ScheduleInterval candidate = ScheduleInterval.of(item.schedule());
+            List<ScheduleInterval> employeeSchedules = byEmployee.computeIfAbsent(candidate.employeeId(), k -> new ArrayList<>());
+            List<ScheduleInterval> userSchedules = byUser.computeIfAbsent(candidate.userId(), k -> new ArrayList<>());
+            List<ScheduleInterval> onSiteSchedules = candidate.onSite()
+                    ? byHeadquarters.computeIfAbsent(candidate.headquarters(), k -> new ArrayList<>())
+                    : new ArrayList<>();
+            Set<ScheduleInterval> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+            existing.addAll(employeeSchedules);
+            existing.addAll(userSchedules);
+            existing.addAll(onSiteSchedules);
+
+            Set<ConflictDimension> violated = EnumSet.noneOf(ConflictDimension.class);
+            violated.addAll(ResourceConflicts.evaluate(candidate, null, EnumSet.allOf(ConflictDimension.class),
+                    existing, resources));
+            if (seriesConflicts.employeeConflict(candidate.employeeId(), candidate.startAt(), candidate.endAt())) {
+                violated.add(ConflictDimension.EMPLOYEE);
+            }
+            if (seriesConflicts.userConflict(candidate.userId(), candidate.startAt(), candidate.endAt())) {
+                violated.add(ConflictDimension.USER);
+            }
+            if (!violated.isEmpty()) {
+                violated.forEach(dimension -> metrics.conflict(dimension.getReason(), false));
+                results[item.position()] = ScheduleBatchResult.rejected(item.index(), HttpStatus.CONFLICT.value(),
+                        ConflictDimension.describe(violated));
+                continue;
+            }
+
+            employeeSchedules.add(candidate);
+            userSchedules.add(candidate);
+            onSiteSchedules.add(candidate);
+            accepted.add(item);
+        }
+    }
+
+    private static <K> Map<K, List<ScheduleInterval>> group(List<Schedule> rows, Map<Long, ScheduleInterval> intervals,
+                                                          Function<ScheduleInterval, K> key) {
+        Map<K, List<ScheduleInterval>> grouped = new HashMap<>();
+        for (Schedule row : rows) {
+            ScheduleInterval interval = intervals.computeIfAbsent(row.getId(), id -> ScheduleInterval.of(row));
+            grouped.computeIfAbsent(key.apply(interval), k -> new ArrayList<>()).add(interval);
+        }
+        return grouped;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Pending(int position, int index, CreateScheduleRequest request, Schedule schedule) {
+        Pending(int position, int index, CreateScheduleRequest request) {
+            this(position, index, request, new Schedule(
+                    request.getEmployeeId(),
+                    request.getUserId(),
+                    request.getStartAt(),
+                    request.getEndAt(),
+                    request.getDetails(),
+                    request.getHeadquarters(),
+                    request.getOffice(),
+                    request.getInPerson(),
+                    request.getGroupSession()));
+        }
+    }
+}
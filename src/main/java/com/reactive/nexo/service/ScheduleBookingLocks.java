@@ -0,0 +1,87 @@
+package com.reactive.nexo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Cerrojos reactivos por franjas (striped) para serializar reservas del mismo empleado, usuario o sede en este
+// nodo. La sede solo se bloquea para citas presenciales, que comparten sus oficinas y su capacidad.
+// Ningún hilo se bloquea: cada franja es una cola FIFO de Monos que se completan al liberar el turno anterior.
+@Component
+public class ScheduleBookingLocks {
+
+    private static final long EMPLOYEE_SALT = 0x9E3779B97F4A7C15L;
+    private static final long USER_SALT = 0xC2B2AE3D27D4EB4FL;
+    private static final long HEADQUARTERS_SALT = 0x165667B19E3779F9L;
+
+    private final AtomicReferenceArray<Mono<Void>> stripes;
+    private final int mask;
+
+    public ScheduleBookingLocks(@Value("${schedule.booking.lock-stripes:1024}") int requestedStripes) {
+        int size = Integer.highestOneBit(Math.max(1, requestedStripes - 1)) << 1;
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes.set(i, Mono.empty());
+        }
+    }
+
+    public <T> Mono<T> withEmployeeAndUser(Long employeeId, Long userId, Supplier<Mono<T>> action) {
+        return withEmployeesAndUsers(Collections.singletonList(employeeId), Collections.singletonList(userId), action);
+    }
+
+    // headquarters: sede de una cita presencial; null si la cita no ocupa sitio en ninguna
+    public <T> Mono<T> withEmployeeUserAndHeadquarters(Long employeeId, Long userId, String headquarters,
+                                                      Supplier<Mono<T>> action) {
+        return withResources(Collections.singletonList(employeeId), Collections.singletonList(userId),
+                headquarters == null ? Collections.emptyList() : Collections.singletonList(headquarters), action);
+    }
+
+    public <T> Mono<T> withEmployeesAndUsers(Collection<Long> employeeIds, Collection<Long> userIds,
+                                             Supplier<Mono<T>> action) {
+        return withResources(employeeIds, userIds, Collections.emptyList(), action);
+    }
+
+    public <T> Mono<T> withResources(Collection<Long> employeeIds, Collection<Long> userIds,
+                                     Collection<String> headquarters, Supplier<Mono<T>> action) {
+        IntStream employeeStripes = employeeIds.stream().mapToInt(id -> stripe(id, EMPLOYEE_SALT));
+        IntStream userStripes = userIds.stream().mapToInt(id -> stripe(id, USER_SALT));
+        IntStream headquartersStripes = headquarters.stream()
+                .mapToInt(name -> stripe((long) name.hashCode(), HEADQUARTERS_SALT));
+        int[] indexes = IntStream.concat(IntStream.concat(employeeStripes, userStripes), headquartersStripes)
+                .distinct()
+                .sorted()
+                .toArray();
+        // Orden fijo de adquisición para evitar interbloqueos entre reservas que comparten franjas
+        return withStripes(indexes, 0, action);
+    }
+
+    private <T> Mono<T> withStripes(int[] indexes, int position, Supplier<Mono<T>> action) {
+        if (position == indexes.length) {
+            return Mono.defer(action);
+        }
+        return withStripe(indexes[position], () -> withStripes(indexes, position + 1, action));
+    }
+
+    private <T> Mono<T> withStripe(int index, Supplier<Mono<T>> action) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> release = Sinks.empty();
+            Mono<Void> previous = stripes.getAndSet(index, release.asMono());
+            // Se libera el turno solo cuando el anterior también terminó, incluso si este se cancela esperando
+            return previous.then(Mono.defer(action))
+                    .doFinally(signal -> previous.subscribe(null, null, release::tryEmitEmpty));
+        });
+    }
+
+    private int stripe(Long key, long salt) {
+        long h = (key == null ? 0L : key) * salt;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,222 @@
+package com.reactive.nexo.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Caché de lectura (read-through) delante de ScheduleRepository: cita por id, citas de un empleado por día y
+// citas de un usuario. Cada entrada es el futuro de la carga, así que peticiones simultáneas comparten una
+// sola consulta; las escrituras publican en el bus y cada nodo invalida exactamente las claves afectadas.
+// Las entradas de listados (empleado y día, usuario) guardan la versión de ScheduleVersions leída antes de
+// cargarlas: una lectura que trae versión solo acepta entradas cargadas con esa versión o una posterior, así
+// que un ETag nunca acompaña a datos anteriores a él. Una carga puede leer la fila anterior a una escritura y
+// terminar después de su invalidación: cada invalidación sube la generación de la clave y la carga que empezó con
+// otra generación retira su entrada al terminar, en lugar de dejarla hasta el ttl. Con varios nodos
+// (single-node: false) la caché solo se activa con un bus de clúster: el local no trae las escrituras de los demás
+@Component
+@Slf4j
+public class ScheduleCache {
+
+    private record EmployeeDay(Long employeeId, LocalDate day) {
+    }
+
+    // version es UNVERSIONED si la carga la pidió una lectura sin versión
+    private record Versioned(long version, List<Schedule> schedules) {
+    }
+
+    private static final long UNVERSIONED = -1;
+
+    // Generaciones por franjas de claves: dos claves en la misma franja solo provocan una recarga de más
+    private static final int GENERATION_STRIPES = 1024;
+    private static final long NOT_LOADED = Long.MIN_VALUE;
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final long maxDays;
+
+    private final AsyncCache<Long, Schedule> byId;
+    private final AsyncCache<EmployeeDay, Versioned> byEmployeeDay;
+    private final AsyncCache<Long, Versioned> byUser;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Disposable subscription;
+
+    public ScheduleCache(ScheduleRepository scheduleRepository,
+                         ScheduleInvalidationBus invalidationBus,
+                         ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${schedule.cache.enabled:true}") boolean enabled,
+                         @Value("${schedule.cache.single-node:${schedule.conflict-index.single-node:true}}")
+                         boolean singleNode,
+                         @Value("${schedule.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${schedule.cache.ttl:5m}") Duration ttl,
+                         @Value("${schedule.cache.max-days:7}") long maxDays) {
+        this.scheduleRepository = scheduleRepository;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled && (singleNode || invalidationBus.clusterWide());
+        if (enabled && !this.enabled) {
+            log.warn("Schedule cache disabled: several nodes share a node-local invalidation bus");
+        }
+        this.maxDays = maxDays;
+        this.byId = newCache(maximumSize, ttl);
+        this.byEmployeeDay = newCache(maximumSize, ttl);
+        this.byUser = newCache(maximumSize, ttl);
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, byId, "schedule.by-id");
+            CaffeineCacheMetrics.monitor(registry, byEmployeeDay, "schedule.by-employee-day");
+            CaffeineCacheMetrics.monitor(registry, byUser, "schedule.by-user");
+        });
+
+        this.subscription = invalidationBus.events()
+                .subscribe(this::apply, e -> log.error("Schedule cache invalidation stream failed", e));
+    }
+
+    private static <K, V> AsyncCache<K, V> newCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscription.dispose();
+    }
+
+    public Mono<Schedule> findById(Long id) {
+        if (!enabled) {
+            return scheduleRepository.findById(id);
+        }
+        // Una carga vacía (cita inexistente) completa con null y Caffeine no la guarda
+        return Mono.fromFuture(get(byId, id, () -> scheduleRepository.findById(id).toFuture()), true);
+    }
+
+    // Ventanas de hasta max-days días se arman con las entradas diarias; las demás van directas a SQL
+    public boolean coversEmployeeWindow(LocalDateTime from, LocalDateTime to) {
+        return enabled && from != null && to != null
+                && ChronoUnit.DAYS.between(from.toLocalDate(), to.toLocalDate()) < maxDays;
+    }
+
+    // Citas del empleado que solapan [from, to) en orden de inicio. Una cita que cruza la medianoche está en
+    // la entrada de ambos días y aparece primero en el anterior, así que basta con descartar ids repetidos.
+    // listVersion es la versión del listado leída por quien llama, o null si no responde con ETag
+    public Flux<Schedule> findByEmployeeWithin(Long employeeId, LocalDateTime from, LocalDateTime to,
+                                               Long listVersion) {
+        return Flux.range(0, (int) ChronoUnit.DAYS.between(from.toLocalDate(), to.toLocalDate()) + 1)
+                .map(offset -> new EmployeeDay(employeeId, from.toLocalDate().plusDays(offset)))
+                .concatMap(key -> cached(byEmployeeDay, key, listVersion, () -> scheduleRepository
+                        .findByEmployeeIdWithin(key.employeeId(), key.day().atStartOfDay(),
+                                key.day().plusDays(1).atStartOfDay(), Integer.MAX_VALUE)))
+                .distinct(Schedule::getId)
+                .filter(schedule -> schedule.getEndAt().isAfter(from) && schedule.getStartAt().isBefore(to));
+    }
+
+    public Flux<Schedule> findByUser(Long userId, Long listVersion) {
+        if (!enabled) {
+            return scheduleRepository.findByUserIdWithin(userId, null, null, Integer.MAX_VALUE);
+        }
+        return cached(byUser, userId, listVersion,
+                () -> scheduleRepository.findByUserIdWithin(userId, null, null, Integer.MAX_VALUE));
+    }
+
+    // Sirve la entrada si no se pide versión o si se cargó con la pedida o una posterior; si no, carga de nuevo y
+    // sustituye la entrada solo si nadie la ha cambiado entretanto (otra lectura o una invalidación)
+    private <K> Flux<Schedule> cached(AsyncCache<K, Versioned> cache, K key, Long listVersion,
+                                      Supplier<Flux<Schedule>> loader) {
+        long version = listVersion == null ? UNVERSIONED : listVersion;
+        CompletableFuture<Versioned> current = get(cache, key, () -> load(loader, version));
+        return Mono.fromFuture(current, true)
+                .flatMap(entry -> {
+                    if (listVersion == null || entry.version() >= listVersion) {
+                        return Mono.just(entry);
+                    }
+                    long stamp = generation(key);
+                    CompletableFuture<Versioned> fresh = load(loader, version);
+                    if (cache.asMap().replace(key, current, fresh)) {
+                        discardIfInvalidated(cache, key, fresh, stamp);
+                    }
+                    return Mono.fromFuture(fresh, true);
+                })
+                .flatMapIterable(Versioned::schedules);
+    }
+
+    // Como AsyncCache.get, pero la entrada creada aquí se vigila hasta que termina su carga. La comprobación se
+    // engancha cuando el futuro ya está en la caché, así que también vale si la carga terminó antes
+    private <K, V> CompletableFuture<V> get(AsyncCache<K, V> cache, K key, Supplier<CompletableFuture<V>> loader) {
+        long[] stamp = {NOT_LOADED};
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> {
+            stamp[0] = generation(k);
+            return loader.get();
+        });
+        if (stamp[0] != NOT_LOADED) {
+            discardIfInvalidated(cache, key, future, stamp[0]);
+        }
+        return future;
+    }
+
+    private <K, V> void discardIfInvalidated(AsyncCache<K, V> cache, K key, CompletableFuture<V> future, long stamp) {
+        future.whenComplete((value, error) -> {
+            if (generation(key) != stamp) {
+                cache.asMap().remove(key, future);
+            }
+        });
+    }
+
+    private long generation(Object key) {
+        return generations.get(key.hashCode() & (GENERATION_STRIPES - 1));
+    }
+
+    // La generación sube antes de invalidar: una carga en curso que aún no está en la caché ya ve el cambio
+    private <K> void invalidateKey(AsyncCache<K, ?> cache, K key) {
+        generations.incrementAndGet(key.hashCode() & (GENERATION_STRIPES - 1));
+        cache.synchronous().invalidate(key);
+    }
+
+    private static CompletableFuture<Versioned> load(Supplier<Flux<Schedule>> loader, long version) {
+        return loader.get().collectList().map(schedules -> new Versioned(version, schedules)).toFuture();
+    }
+
+    public void invalidate(Schedule schedule) {
+        invalidationBus.publish(ScheduleInvalidation.of(schedule));
+    }
+
+    public void invalidate(ScheduleInvalidation invalidation) {
+        invalidationBus.publish(invalidation);
+    }
+
+    private void apply(ScheduleInvalidation invalidation) {
+        if (invalidation.scheduleId() != null) {
+            invalidateKey(byId, invalidation.scheduleId());
+        }
+        if (invalidation.userId() != null) {
+            invalidateKey(byUser, invalidation.userId());
+        }
+        if (invalidation.employeeId() != null && invalidation.startAt() != null && invalidation.endAt() != null) {
+            for (LocalDate day = invalidation.startAt().toLocalDate();
+                 !day.isAfter(invalidation.endAt().toLocalDate()); day = day.plusDays(1)) {
+                invalidateKey(byEmployeeDay, new EmployeeDay(invalidation.employeeId(), day));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.dto.ScheduleChangeEvent;
+import com.reactive.nexo.model.Schedule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Flujo de cambios de citas de este nodo para los paneles de recepción. Los últimos eventos se guardan en un
+// sink con repetición acotada: un cliente que se reconecta con el último 'sequence' recibido recupera lo que
+// se perdió sin recargar, y si ya salió del búfer recibe un evento RESET. Las secuencias parten del instante
+// de arranque, así que un token de otro proceso también provoca RESET. Publicar nunca espera a los
+// suscriptores: cada uno tiene su propio búfer y se desconecta si se queda atrás, para que se reconecte.
+@Component
+@Slf4j
+public class ScheduleChangeStream {
+
+    private final Sinks.Many<ScheduleChangeEvent> sink;
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final Duration heartbeat;
+    private final long firstSequence;
+    private long latest;
+
+    public ScheduleChangeStream(@Value("${schedule.changes.replay-size:1000}") int replaySize,
+                                @Value("${schedule.changes.subscriber-buffer:256}") int subscriberBuffer,
+                                @Value("${schedule.changes.heartbeat:15s}") Duration heartbeat) {
+        this.sink = Sinks.many().replay().limit(replaySize);
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.heartbeat = heartbeat;
+        this.firstSequence = System.currentTimeMillis() * 1000;
+        this.latest = firstSequence - 1;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void created(Schedule schedule) {
+        publish(ScheduleChangeEvent.Type.CREATED, schedule, null, null);
+    }
+
+    public void updated(Schedule schedule, Long previousEmployeeId, String previousHeadquarters) {
+        publish(ScheduleChangeEvent.Type.UPDATED, schedule, previousEmployeeId, previousHeadquarters);
+    }
+
+    public void deleted(Schedule schedule) {
+        publish(ScheduleChangeEvent.Type.DELETED, schedule, null, null);
+    }
+
+    // Sin token solo se reciben cambios nuevos; con token, los posteriores a él
+    public Flux<ScheduleChangeEvent> changes(Long employeeId, String headquarters, String resumeToken) {
+        return Flux.defer(() -> {
+            Long after = parseToken(resumeToken);
+            long current = latest();
+            long oldest = Math.max(firstSequence, current - replaySize + 1);
+            Flux<ScheduleChangeEvent> events;
+            if (after == null) {
+                events = sink.asFlux().filter(event -> event.getSequence() > current);
+            } else if (after > current || after < oldest - 1) {
+                ScheduleChangeEvent reset = new ScheduleChangeEvent(current, ScheduleChangeEvent.Type.RESET,
+                        LocalDateTime.now(), null, null, null);
+                events = Flux.concat(Flux.just(reset), sink.asFlux().filter(event -> event.getSequence() > current));
+            } else {
+                events = sink.asFlux().filter(event -> event.getSequence() > after);
+            }
+            return events
+                    .filter(event -> event.matches(employeeId, headquarters))
+                    .onBackpressureBuffer(subscriberBuffer)
+                    .onErrorResume(Exceptions::isOverflow, e -> {
+                        log.warn("Closing slow schedule change subscriber after {} pending events", subscriberBuffer);
+                        return Flux.empty();
+                    });
+        });
+    }
+
+    // La secuencia se asigna y se emite bajo el mismo cerrojo para que el búfer quede ordenado y sin huecos
+    private synchronized void publish(ScheduleChangeEvent.Type type, Schedule schedule,
+                                      Long previousEmployeeId, String previousHeadquarters) {
+        ScheduleChangeEvent event = new ScheduleChangeEvent(latest + 1, type, LocalDateTime.now(),
+                previousEmployeeId, previousHeadquarters, schedule);
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure()) {
+            log.warn("Could not publish schedule change {} for schedule {}: {}", type, schedule.getId(), result);
+            return;
+        }
+        latest = event.getSequence();
+    }
+
+    private synchronized long latest() {
+        return latest;
+    }
+
+    private Long parseToken(String resumeToken) {
+        if (resumeToken == null || resumeToken.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(resumeToken.trim());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid resume token");
+        }
+    }
+}
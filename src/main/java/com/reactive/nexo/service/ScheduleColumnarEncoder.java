@@ -0,0 +1,148 @@
+package com.reactive.nexo.service;
+
+import io.r2dbc.spi.Row;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Formato columnar de exportación (big-endian):
+//   cabecera: "NXSC" + versión (1 byte)
+//   bloque:   filas (int) > 0
+//             nuevas entradas del diccionario de sedes: cantidad (int) y por cada una longitud (short) + UTF-8
+//             nuevas entradas del diccionario de oficinas, igual
+//             id, employee_id, user_id, start_at, end_at: una columna de longs por campo
+//             headquarters, office: una columna de ints con el código de diccionario (-1 = nulo)
+//             flags: un byte por fila (bit 0 in_person, bit 1 group_session)
+//   fin:      filas (int) = 0
+// Las fechas son segundos epoch de la hora local tal como está guardada (sin zona, leída como UTC). Los
+// diccionarios son acumulativos: cada bloque solo trae los valores que aparecen por primera vez
+final class ScheduleColumnarEncoder implements ScheduleRowEncoder {
+
+    static final byte[] MAGIC = {'N', 'X', 'S', 'C'};
+    static final byte VERSION = 1;
+    static final int NULL_CODE = -1;
+
+    private final int blockRows;
+    private final long[] ids;
+    private final long[] employeeIds;
+    private final long[] userIds;
+    private final long[] startAt;
+    private final long[] endAt;
+    private final int[] headquarters;
+    private final int[] offices;
+    private final byte[] flags;
+    private final Dictionary headquartersDictionary = new Dictionary();
+    private final Dictionary officeDictionary = new Dictionary();
+    private int size;
+
+    ScheduleColumnarEncoder(int blockRows) {
+        this.blockRows = blockRows;
+        this.ids = new long[blockRows];
+        this.employeeIds = new long[blockRows];
+        this.userIds = new long[blockRows];
+        this.startAt = new long[blockRows];
+        this.endAt = new long[blockRows];
+        this.headquarters = new int[blockRows];
+        this.offices = new int[blockRows];
+        this.flags = new byte[blockRows];
+    }
+
+    @Override
+    public DataBuffer header(DataBufferFactory factory) {
+        return factory.wrap(ByteBuffer.allocate(MAGIC.length + 1).put(MAGIC).put(VERSION).flip());
+    }
+
+    @Override
+    public boolean append(Row row) {
+        ids[size] = row.get("id", Long.class);
+        employeeIds[size] = row.get("employee_id", Long.class);
+        userIds[size] = row.get("user_id", Long.class);
+        startAt[size] = epochSecond(row.get("start_at", LocalDateTime.class));
+        endAt[size] = epochSecond(row.get("end_at", LocalDateTime.class));
+        headquarters[size] = headquartersDictionary.code(row.get("headquarters", String.class));
+        offices[size] = officeDictionary.code(row.get("office", String.class));
+        flags[size] = (byte) ((Boolean.TRUE.equals(row.get("in_person", Boolean.class)) ? 1 : 0)
+                | (Boolean.TRUE.equals(row.get("group_session", Boolean.class)) ? 2 : 0));
+        return ++size == blockRows;
+    }
+
+    @Override
+    public DataBuffer flush(DataBufferFactory factory) {
+        int bytes = Integer.BYTES + headquartersDictionary.pendingBytes() + officeDictionary.pendingBytes()
+                + size * (5 * Long.BYTES + 2 * Integer.BYTES + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.putInt(size);
+        headquartersDictionary.writePending(buffer);
+        officeDictionary.writePending(buffer);
+        for (long[] column : new long[][]{ids, employeeIds, userIds, startAt, endAt}) {
+            for (int i = 0; i < size; i++) {
+                buffer.putLong(column[i]);
+            }
+        }
+        for (int[] column : new int[][]{headquarters, offices}) {
+            for (int i = 0; i < size; i++) {
+                buffer.putInt(column[i]);
+            }
+        }
+        buffer.put(flags, 0, size);
+        size = 0;
+        return factory.wrap(buffer.flip());
+    }
+
+    @Override
+    public DataBuffer finish(DataBufferFactory factory) {
+        if (size == 0) {
+            return factory.wrap(ByteBuffer.allocate(Integer.BYTES).putInt(0).flip());
+        }
+        DataBuffer last = flush(factory);
+        return factory.join(List.of(last, factory.wrap(ByteBuffer.allocate(Integer.BYTES).putInt(0).flip())));
+    }
+
+    private static long epochSecond(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<byte[]> pending = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+                pending.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return code;
+        }
+
+        int pendingBytes() {
+            int bytes = Integer.BYTES;
+            for (byte[] entry : pending) {
+                bytes += Short.BYTES + entry.length;
+            }
+            return bytes;
+        }
+
+        void writePending(ByteBuffer buffer) {
+            buffer.putInt(pending.size());
+            for (byte[] entry : pending) {
+                buffer.putShort((short) entry.length);
+                buffer.put(entry);
+            }
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.config.ScheduleResourceProperties;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice en memoria de intervalos por empleado, por usuario y por sede (solo citas presenciales) para validar
+// conflictos sin ir a la BD. Contiene todas las citas cuyo end_at es posterior al horizonte calculado al
+// arrancar; las consultas anteriores al horizonte, o mientras el índice se está cargando, se resuelven con SQL.
+// Las escrituras de este nodo llegan con put/remove; con un bus de invalidación que abarca el clúster, las citas
+// de cada invalidación se vuelven a leer de la BD por lotes, así que también se reflejan (en todas las
+// dimensiones: empleado, usuario, oficina y sede) las escrituras de otros nodos. Con varios nodos y el bus local
+// (single-node: false) el índice no se activa y todas las validaciones van a SQL
+@Component
+@Slf4j
+public class ScheduleConflictIndex {
+
+    private static final Comparator<ScheduleInterval> BY_START = Comparator
+            .comparing(ScheduleInterval::startAt)
+            .thenComparing(ScheduleInterval::id);
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleResourceProperties resources;
+    private final boolean enabled;
+    private final boolean verify;
+    private final Duration horizon;
+    private final Disposable subscription;
+
+    private final Map<Long, ScheduleInterval> byId = new ConcurrentHashMap<>();
+    private final Map<Long, Timeline> byEmployee = new ConcurrentHashMap<>();
+    private final Map<Long, Timeline> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Timeline> byHeadquarters = new ConcurrentHashMap<>();
+    // Ids modificados a través del servicio mientras se carga el índice; la carga no debe pisarlos
+    private final Set<Long> touchedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+    private volatile boolean loading;
+    private volatile LocalDateTime coveredFrom = LocalDateTime.MAX;
+
+    public ScheduleConflictIndex(ScheduleRepository scheduleRepository,
+                                 ScheduleResourceProperties resources,
+                                 ScheduleInvalidationBus invalidationBus,
+                                 @Value("${schedule.conflict-index.enabled:true}") boolean enabled,
+                                 @Value("${schedule.conflict-index.single-node:true}") boolean singleNode,
+                                 @Value("${schedule.conflict-index.verify:false}") boolean verify,
+                                 @Value("${schedule.conflict-index.horizon-days:30}") long horizonDays,
+                                 @Value("${schedule.conflict-index.refresh-batch:200}") int refreshBatch) {
+        this.scheduleRepository = scheduleRepository;
+        this.resources = resources;
+        // Sin un bus de clúster el índice no vería las escrituras de los demás nodos
+        this.enabled = enabled && (singleNode || invalidationBus.clusterWide());
+        if (enabled && !this.enabled) {
+            log.warn("Schedule conflict index disabled: several nodes share a node-local invalidation bus");
+        }
+        this.verify = verify;
+        this.horizon = Duration.ofDays(horizonDays);
+        // Los lotes se releen en orden: la lectura posterior a la última escritura de una cita es la que queda
+        this.subscription = this.enabled && invalidationBus.clusterWide()
+                ? invalidationBus.events()
+                        .filter(invalidation -> invalidation.scheduleId() != null)
+                        .map(ScheduleInvalidation::scheduleId)
+                        .onBackpressureBuffer()
+                        .bufferTimeout(refreshBatch, Duration.ofMillis(20), true)
+                        .concatMap(this::refresh)
+                        .subscribe(null, e -> log.error("Schedule conflict index invalidation stream failed", e))
+                : Disposables.disposed();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscription.dispose();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Schedule conflict index disabled, overlap checks will use SQL");
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now().minus(horizon);
+        loading = true;
+        scheduleRepository.findByEndAtGreaterThanEqual(from)
+                .filter(schedule -> !touchedDuringLoad.contains(schedule.getId()))
+                .doOnNext(this::insert)
+                .count()
+                .subscribe(count -> {
+                    coveredFrom = from;
+                    loading = false;
+                    touchedDuringLoad.clear();
+                    ready = true;
+                    log.info("Schedule conflict index loaded with {} schedules ending after {}", count, from);
+                }, e -> {
+                    loading = false;
+                    log.error("Schedule conflict index warm-up failed, overlap checks will use SQL", e);
+                });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // La carga inicial está en curso; si falla o el índice está deshabilitado las validaciones usan SQL
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public void put(Schedule schedule) {
+        if (!enabled) {
+            return;
+        }
+        if (loading) {
+            touchedDuringLoad.add(schedule.getId());
+        }
+        insert(schedule);
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        if (loading) {
+            touchedDuringLoad.add(id);
+        }
+        evict(id);
+    }
+
+    // Una cita que ya no existe (borrada o archivada en otro nodo) sale del índice; un fallo deja el lote sin
+    // aplicar y lo registra, la siguiente escritura de esas citas las vuelve a leer
+    private Mono<Void> refresh(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        return scheduleRepository.findAllById(distinct)
+                .collectMap(Schedule::getId)
+                .doOnNext(found -> distinct.forEach(id -> {
+                    Schedule schedule = found.get(id);
+                    if (schedule != null) {
+                        put(schedule);
+                    } else {
+                        remove(id);
+                    }
+                }))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Schedule conflict index refresh of {} schedules failed", distinct.size(), e);
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Long> countEmployeeOverlaps(Long employeeId, LocalDateTime startAt, LocalDateTime endAt, Long excludeId) {
+        Mono<Long> fromDb = Mono.defer(() ->
+                scheduleRepository.countOverlappingSchedulesForEmployee(employeeId, startAt, endAt, excludeId));
+        if (!covers(startAt)) {
+            return fromDb;
+        }
+        long indexed = timeline(byEmployee, employeeId).countOverlaps(startAt, endAt, excludeId);
+        return verify ? fromDb.doOnNext(db -> reportMismatch("employee", employeeId, startAt, endAt, db, indexed))
+                      : Mono.just(indexed);
+    }
+
+    public Mono<Long> countUserOverlaps(Long userId, LocalDateTime startAt, LocalDateTime endAt, Long excludeId) {
+        Mono<Long> fromDb = Mono.defer(() ->
+                scheduleRepository.countOverlappingSchedulesForUser(userId, startAt, endAt, excludeId));
+        if (!covers(startAt)) {
+            return fromDb;
+        }
+        long indexed = timeline(byUser, userId).countOverlaps(startAt, endAt, excludeId);
+        return verify ? fromDb.doOnNext(db -> reportMismatch("user", userId, startAt, endAt, db, indexed))
+                      : Mono.just(indexed);
+    }
+
+    // Dimensiones en conflicto para la cita, evaluadas sobre las candidatas del empleado, del usuario y de la
+    // sede en una sola pasada por el índice o, fuera de su cobertura, en una sola consulta combinada
+    public Mono<Set<ConflictDimension>> findConflicts(Schedule schedule, Long excludeId,
+                                                      Set<ConflictDimension> dimensions) {
+        ScheduleInterval candidate = ScheduleInterval.of(schedule);
+        Mono<Set<ConflictDimension>> fromDb = Mono.defer(() -> scheduleRepository.findConflictCandidates(
+                        candidate.employeeId(), candidate.userId(),
+                        candidate.onSite() ? candidate.headquarters() : null,
+                        candidate.startAt(), candidate.endAt())
+                .map(ScheduleInterval::of)
+                .collectList()
+                .map(rows -> ResourceConflicts.evaluate(candidate, excludeId, dimensions, rows, resources)));
+        if (!covers(candidate.startAt())) {
+            return fromDb;
+        }
+        Set<ConflictDimension> indexed = ResourceConflicts.evaluate(candidate, excludeId, dimensions,
+                candidates(candidate, dimensions), resources);
+        return verify ? fromDb.doOnNext(db -> reportMismatch("resources", candidate.employeeId(),
+                                candidate.startAt(), candidate.endAt(), db, indexed))
+                      : Mono.just(indexed);
+    }
+
+    // Bajo el monitor de las escrituras para leer las tres líneas de tiempo en el mismo estado; una cita que
+    // aparece en varias se evalúa una sola vez
+    private synchronized Collection<ScheduleInterval> candidates(ScheduleInterval candidate,
+                                                                Set<ConflictDimension> dimensions) {
+        Map<Long, ScheduleInterval> found = new HashMap<>();
+        if (dimensions.contains(ConflictDimension.EMPLOYEE)) {
+            timeline(byEmployee, candidate.employeeId()).collectOverlaps(candidate.startAt(), candidate.endAt(), found);
+        }
+        if (dimensions.contains(ConflictDimension.USER)) {
+            timeline(byUser, candidate.userId()).collectOverlaps(candidate.startAt(), candidate.endAt(), found);
+        }
+        if (candidate.onSite() && (dimensions.contains(ConflictDimension.OFFICE)
+                || dimensions.contains(ConflictDimension.HEADQUARTERS))) {
+            timeline(byHeadquarters, candidate.headquarters())
+                    .collectOverlaps(candidate.startAt(), candidate.endAt(), found);
+        }
+        return found.values();
+    }
+
+    // Todo intervalo que solapa [startAt, endAt] termina en o después de startAt, así que basta con
+    // que startAt quede dentro del horizonte cargado para que la respuesta del índice sea completa
+    private boolean covers(LocalDateTime startAt) {
+        return enabled && ready && !startAt.isBefore(coveredFrom);
+    }
+
+    private synchronized void insert(Schedule schedule) {
+        ScheduleInterval interval = ScheduleInterval.of(schedule);
+        ScheduleInterval previous = byId.put(interval.id(), interval);
+        if (previous != null) {
+            detach(previous);
+        }
+        timeline(byEmployee, interval.employeeId()).add(interval);
+        timeline(byUser, interval.userId()).add(interval);
+        if (interval.onSite()) {
+            timeline(byHeadquarters, interval.headquarters()).add(interval);
+        }
+    }
+
+    private synchronized void evict(Long id) {
+        ScheduleInterval previous = byId.remove(id);
+        if (previous != null) {
+            detach(previous);
+        }
+    }
+
+    private void detach(ScheduleInterval interval) {
+        timeline(byEmployee, interval.employeeId()).remove(interval);
+        timeline(byUser, interval.userId()).remove(interval);
+        if (interval.onSite()) {
+            timeline(byHeadquarters, interval.headquarters()).remove(interval);
+        }
+    }
+
+    private <K> Timeline timeline(Map<K, Timeline> timelines, K key) {
+        return timelines.computeIfAbsent(key, k -> new Timeline());
+    }
+
+    private void reportMismatch(String dimension, Long key, LocalDateTime startAt, LocalDateTime endAt,
+                                Object db, Object indexed) {
+        if (!db.equals(indexed)) {
+            log.warn("Schedule conflict index mismatch ({} {}, {} - {}): database={}, index={}",
+                    dimension, key, startAt, endAt, db, indexed);
+        }
+    }
+
+    // Intervalos de un recurso ordenados por inicio; la duración máxima acota la búsqueda hacia atrás
+    private static final class Timeline {
+        private final NavigableSet<ScheduleInterval> intervals = new TreeSet<>(BY_START);
+        private Duration maxDuration = Duration.ZERO;
+
+        synchronized void add(ScheduleInterval interval) {
+            intervals.add(interval);
+            Duration duration = Duration.between(interval.startAt(), interval.endAt());
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        synchronized void remove(ScheduleInterval interval) {
+            intervals.remove(interval);
+        }
+
+        synchronized long countOverlaps(LocalDateTime startAt, LocalDateTime endAt, Long excludeId) {
+            long count = 0;
+            for (ScheduleInterval candidate : candidates(startAt, endAt)) {
+                if (excludeId != null && excludeId.equals(candidate.id())) {
+                    continue;
+                }
+                if (ScheduleOverlap.overlaps(candidate.startAt(), candidate.endAt(), startAt, endAt)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        synchronized void collectOverlaps(LocalDateTime startAt, LocalDateTime endAt, Map<Long, ScheduleInterval> found) {
+            for (ScheduleInterval candidate : candidates(startAt, endAt)) {
+                if (ScheduleOverlap.overlaps(candidate.startAt(), candidate.endAt(), startAt, endAt)) {
+                    found.put(candidate.id(), candidate);
+                }
+            }
+        }
+
+        private NavigableSet<ScheduleInterval> candidates(LocalDateTime startAt, LocalDateTime endAt) {
+            ScheduleInterval from = new ScheduleInterval(Long.MIN_VALUE, null, null, startAt.minus(maxDuration), null,
+                    null, null, false, false);
+            ScheduleInterval to = new ScheduleInterval(Long.MAX_VALUE, null, null, endAt, null,
+                    null, null, false, false);
+            return intervals.subSet(from, true, to, true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.reactive.nexo.service;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.connection.ConnectionHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+// Consultas independientes de una misma petición sobre una sola conexión del pool. La conexión se adquiere una
+// vez, antes de suscribirse a las consultas, y se liga al contexto de Reactor como recurso de la fábrica de
+// conexiones, igual que haría una transacción pero sin abrirla: los repositorios la reutilizan (y no la cierran),
+// cada sentencia se confirma sola en autocommit y no se envía BEGIN/COMMIT. Dentro de una transacción existente
+// las consultas simplemente usan su conexión. Ligarla en el primer uso no sirve: si esa adquisición espera en el
+// pool, las demás consultas del zip adquirirían la suya. r2dbc-postgresql envía en tubería las sentencias que
+// llegan a la vez por la misma conexión, así que un Mono.zip de N consultas ocupa una conexión en lugar de N y no
+// compite N veces por el pool saturado
+@Component
+public class ScheduleConnectionScope {
+
+    private final ConnectionFactory connectionFactory;
+    private final boolean enabled;
+
+    public ScheduleConnectionScope(ConnectionFactory connectionFactory,
+                                   @Value("${schedule.r2dbc.pipelining:true}") boolean enabled) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+    }
+
+    public <T> Mono<T> single(Mono<T> queries) {
+        if (!enabled) {
+            return queries;
+        }
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronization -> synchronization.hasResource(connectionFactory)
+                        ? queries
+                        : Mono.usingWhen(Mono.from(connectionFactory.create()), connection -> {
+                            synchronization.bindResource(connectionFactory, new ConnectionHolder(connection));
+                            return queries;
+                        }, connection -> release(synchronization, connection)))
+                .contextWrite(TransactionContextManager.getOrCreateContext())
+                .contextWrite(TransactionContextManager.getOrCreateContextHolder());
+    }
+
+    private Mono<Void> release(TransactionSynchronizationManager synchronization, Connection connection) {
+        synchronization.unbindResourceIfPossible(connectionFactory);
+        return Mono.from(connection.close());
+    }
+}
@@ -0,0 +1,70 @@
+package com.reactive.nexo.service;
+
+import io.r2dbc.spi.Row;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// CSV (RFC 4180) con cabecera; las fechas en ISO-8601 sin zona, como se guardan
+final class ScheduleCsvEncoder implements ScheduleRowEncoder {
+
+    private static final String HEADER = "id,employee_id,user_id,start_at,end_at,headquarters,office,in_person,group_session\r\n";
+
+    private final int blockRows;
+    private final StringBuilder block = new StringBuilder();
+    private int size;
+
+    ScheduleCsvEncoder(int blockRows) {
+        this.blockRows = blockRows;
+    }
+
+    @Override
+    public DataBuffer header(DataBufferFactory factory) {
+        return factory.wrap(HEADER.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean append(Row row) {
+        block.append(row.get("id", Long.class)).append(',')
+                .append(row.get("employee_id", Long.class)).append(',')
+                .append(row.get("user_id", Long.class)).append(',');
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(row.get("start_at", LocalDateTime.class), block);
+        block.append(',');
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(row.get("end_at", LocalDateTime.class), block);
+        block.append(',');
+        appendText(row.get("headquarters", String.class));
+        block.append(',');
+        appendText(row.get("office", String.class));
+        block.append(',').append(Boolean.TRUE.equals(row.get("in_person", Boolean.class)))
+                .append(',').append(Boolean.TRUE.equals(row.get("group_session", Boolean.class)))
+                .append("\r\n");
+        return ++size == blockRows;
+    }
+
+    @Override
+    public DataBuffer flush(DataBufferFactory factory) {
+        DataBuffer buffer = factory.wrap(block.toString().getBytes(StandardCharsets.UTF_8));
+        block.setLength(0);
+        size = 0;
+        return buffer;
+    }
+
+    @Override
+    public DataBuffer finish(DataBufferFactory factory) {
+        return flush(factory);
+    }
+
+    private void appendText(String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            block.append(value);
+            return;
+        }
+        block.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,14 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Destino del relay de la bandeja de salida (notificaciones, facturación). La implementación por defecto solo
+// entrega a suscriptores de este proceso; para un broker se registra un bean propio. El Mono debe completarse
+// cuando el destino haya aceptado todo el lote: si falla, el lote se reintenta en el siguiente ciclo
+public interface ScheduleEventPublisher {
+
+    Mono<Void> publish(List<ScheduleOutboxEvent> events);
+}
@@ -0,0 +1,88 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.dto.ExportFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Exportación de rangos completos para analítica. Las filas se codifican en el callback de R2DBC a medida que
+// llegan, sin crear Schedule ni pasar por Jackson, y se envían en bloques de block-rows filas; la memoria por
+// exportación es la de un bloque aunque el rango tenga millones de citas. Un rango que empieza antes del corte del
+// archivador une las citas archivadas en la misma sentencia (una sola instantánea: una cita que se está moviendo
+// aparece una vez). No incluye 'details' ni las ocurrencias de series recurrentes
+@Service
+public class ScheduleExportService {
+
+    private static final String EXPORT_SQL = "SELECT " + ScheduleRowEncoder.COLUMNS + " FROM schedule " +
+            "WHERE start_at >= :from AND start_at < :to ORDER BY start_at, id";
+
+    private static final String EXPORT_WITH_ARCHIVE_SQL = "SELECT " + ScheduleRowEncoder.COLUMNS + " FROM schedule " +
+            "WHERE start_at >= :from AND start_at < :to " +
+            "UNION ALL SELECT " + ScheduleRowEncoder.COLUMNS + " FROM schedule_archive " +
+            "WHERE start_at >= :from AND start_at < :to ORDER BY start_at, id";
+
+    private final DatabaseClient databaseClient;
+    private final ScheduleArchiver archiver;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final int blockRows;
+    private final int maxDays;
+
+    public ScheduleExportService(DatabaseClient databaseClient,
+                                 ScheduleArchiver archiver,
+                                 @Value("${schedule.export.block-rows:4096}") int blockRows,
+                                 @Value("${schedule.export.max-days:366}") int maxDays) {
+        this.databaseClient = databaseClient;
+        this.archiver = archiver;
+        this.blockRows = blockRows;
+        this.maxDays = maxDays;
+    }
+
+    public Flux<DataBuffer> export(LocalDateTime from, LocalDateTime to, ExportFormat format) {
+        return validateRange(from, to)
+                .thenMany(Flux.defer(() -> {
+                    ScheduleRowEncoder encoder = format == ExportFormat.CSV
+                            ? new ScheduleCsvEncoder(blockRows)
+                            : new ScheduleColumnarEncoder(blockRows);
+                    // append y flush se ejecutan en la misma señal, antes de que llegue la fila siguiente
+                    String sql = reachesArchive(from) ? EXPORT_WITH_ARCHIVE_SQL : EXPORT_SQL;
+                    Flux<DataBuffer> blocks = databaseClient.sql(sql)
+                            .bind("from", from)
+                            .bind("to", to)
+                            .map((row, metadata) -> encoder.append(row))
+                            .all()
+                            .filter(Boolean::booleanValue)
+                            .map(full -> encoder.flush(bufferFactory));
+                    return Flux.concat(Mono.fromSupplier(() -> encoder.header(bufferFactory)), blocks,
+                            Mono.fromSupplier(() -> encoder.finish(bufferFactory)));
+                }));
+    }
+
+    // Se archivan las citas que terminaron antes del corte, así que las que empiezan después siguen en schedule
+    private boolean reachesArchive(LocalDateTime from) {
+        return from.isBefore(LocalDateTime.now().minus(archiver.getRetention()));
+    }
+
+    private Mono<Void> validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "from and to are required"));
+        }
+        if (!from.isBefore(to)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to"));
+        }
+        if (Duration.between(from, to).toDays() > maxDays) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "export range must not exceed " + maxDays + " days"));
+        }
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,29 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.dto.ScheduleSlot;
+import com.reactive.nexo.model.Schedule;
+
+import java.time.LocalDateTime;
+
+// Franja de una cita con los recursos que ocupa: lo que guarda el índice de conflictos y lo que evalúa
+// ResourceConflicts
+record ScheduleInterval(Long id, Long employeeId, Long userId, LocalDateTime startAt, LocalDateTime endAt,
+                        String headquarters, String office, boolean inPerson, boolean groupSession) {
+
+    static ScheduleInterval of(Schedule schedule) {
+        return new ScheduleInterval(schedule.getId(), schedule.getEmployeeId(), schedule.getUserId(),
+                schedule.getStartAt(), schedule.getEndAt(), schedule.getHeadquarters(), schedule.getOffice(),
+                Boolean.TRUE.equals(schedule.getInPerson()), Boolean.TRUE.equals(schedule.getGroupSession()));
+    }
+
+    static ScheduleInterval of(ScheduleSlot slot) {
+        return new ScheduleInterval(slot.getId(), slot.getEmployeeId(), slot.getUserId(), slot.getStartAt(),
+                slot.getEndAt(), slot.getHeadquarters(), slot.getOffice(),
+                Boolean.TRUE.equals(slot.getInPerson()), Boolean.TRUE.equals(slot.getGroupSession()));
+    }
+
+    // Ocupa sitio físico en una sede
+    boolean onSite() {
+        return inPerson && headquarters != null;
+    }
+}
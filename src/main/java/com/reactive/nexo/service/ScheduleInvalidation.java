@@ -0,0 +1,15 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.Schedule;
+
+import java.time.LocalDateTime;
+
+// Mensaje del bus de invalidación: identifica la cita y las claves de caché (empleado, días y usuario) que toca
+public record ScheduleInvalidation(Long scheduleId, Long employeeId, Long userId,
+                                   LocalDateTime startAt, LocalDateTime endAt) {
+
+    public static ScheduleInvalidation of(Schedule schedule) {
+        return new ScheduleInvalidation(schedule.getId(), schedule.getEmployeeId(), schedule.getUserId(),
+                schedule.getStartAt(), schedule.getEndAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactive.nexo.service;
+
+import reactor.core.publisher.Flux;
+
+// Canal por el que se propagan las invalidaciones de caché. La implementación por defecto solo alcanza a este
+// proceso; con varios nodos se registra un bean propio (p. ej. LISTEN/NOTIFY de PostgreSQL o un broker) que
+// entregue en events() tanto las invalidaciones locales como las publicadas por los demás nodos
+public interface ScheduleInvalidationBus {
+
+    void publish(ScheduleInvalidation invalidation);
+
+    Flux<ScheduleInvalidation> events();
+
+    // true si events() entrega también las invalidaciones de los demás nodos; el índice de conflictos solo
+    // se alimenta del bus en ese caso, con el bus local ya recibe las escrituras directamente
+    default boolean clusterWide() {
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+package com.reactive.nexo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Métricas de las rutas críticas. Los medidores se crean una sola vez por operación y resultado (ver
+// ReactiveMetricsPostProcessor), así que medir una llamada solo cuesta dos lecturas de nanoTime. Cada
+// temporizador se registra en su primer uso: un método que nunca falla no publica series de error. Solo los
+// métodos de schedule.metrics.histograms (las rutas calientes) publican histograma de percentiles
+@Component
+public class ScheduleMetrics {
+
+    public static final String SERVICE_TIMER = "schedule.service";
+    public static final String REPOSITORY_TIMER = "schedule.repository";
+    public static final String CONFLICTS_COUNTER = "schedule.conflicts";
+    public static final String OUTBOX_DELAY_TIMER = "schedule.outbox.delay";
+    public static final String OUTBOX_LAG_GAUGE = "schedule.outbox.lag";
+    public static final String SINGLE_FLIGHT_COUNTER = "schedule.single-flight";
+
+    private final MeterRegistry registry;
+    private final Set<String> histograms;
+    private final Map<String, Counter> conflicts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> singleFlight = new ConcurrentHashMap<>();
+    private final Timer outboxDelay;
+
+    public ScheduleMetrics(MeterRegistry registry,
+                           @Value("${schedule.metrics.histograms:ScheduleService.createSchedule,"
+                                   + "ScheduleService.updateSchedule,ScheduleService.getScheduleById,"
+                                   + "ScheduleService.getSchedulesByEmployeeId,ScheduleService.getSchedulesByUserId,"
+                                   + "ScheduleService.getAllSchedules}") Set<String> histograms) {
+        this.registry = registry;
+        this.histograms = histograms;
+        this.outboxDelay = Timer.builder(OUTBOX_DELAY_TIMER)
+                .description("Time from the schedule change to the publication of its outbox event")
+                .register(registry);
+    }
+
+    // Quien lo invoca guarda la operación (p. ej. por java.lang.reflect.Method) para no repetir el registro
+    public Operation service(String service, String method) {
+        return new Operation(registry, SERVICE_TIMER, histograms.contains(service + '.' + method),
+                "service", service, "method", method);
+    }
+
+    public Operation repository(String repository, String method) {
+        return new Operation(registry, REPOSITORY_TIMER, histograms.contains(repository + '.' + method),
+                "repository", repository, "method", method);
+    }
+
+    // reason: employee, user, office, headquarters (ConflictDimension) o database (restricción de exclusión);
+    // session: individual o group
+    public void conflict(String reason, boolean groupSession) {
+        String session = groupSession ? "group" : "individual";
+        conflicts.computeIfAbsent(reason + ':' + session, key -> Counter.builder(CONFLICTS_COUNTER)
+                        .description("Schedules rejected because of an overlapping booking")
+                        .tag("reason", reason)
+                        .tag("session", session)
+                        .register(registry))
+                .increment();
+    }
+
+    // result: executed (consulta lanzada), coalesced (se unió a una en curso o recién terminada) o bypassed
+    // (tabla de claves llena, consulta sin compartir)
+    public void singleFlight(String operation, String result) {
+        singleFlight.computeIfAbsent(operation + ':' + result, key -> Counter.builder(SINGLE_FLIGHT_COUNTER)
+                        .description("Identical concurrent reads, by whether they ran their own query or shared one")
+                        .tag("operation", operation)
+                        .tag("result", result)
+                        .register(registry))
+                .increment();
+    }
+
+    // El conteo del temporizador es el caudal de eventos publicados; su distribución, el retraso de cada uno
+    public void outboxPublished(Duration delay) {
+        outboxDelay.record(delay);
+    }
+
+    // Antigüedad en segundos del evento pendiente más antiguo (0 con la bandeja vacía)
+    public void outboxLag(Supplier<Number> seconds) {
+        Gauge.builder(OUTBOX_LAG_GAUGE, seconds)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    // Un temporizador por resultado, creado al registrar el primero; el tiempo se mide desde la suscripción hasta
+    // la señal de fin. El histograma, si lo hay, solo en success: los errores y cancelaciones solo se cuentan
+    public static final class Operation {
+
+        private final MeterRegistry registry;
+        private final String name;
+        private final boolean histogram;
+        private final String[] tags;
+        // Dos hilos pueden registrar a la vez el mismo temporizador: MeterRegistry devuelve el mismo a ambos
+        private volatile Timer success;
+        private volatile Timer error;
+        private volatile Timer cancel;
+
+        private Operation(MeterRegistry registry, String name, boolean histogram, String... tags) {
+            this.registry = registry;
+            this.name = name;
+            this.histogram = histogram;
+            this.tags = tags;
+        }
+
+        private Timer timer(String outcome, boolean withHistogram) {
+            return Timer.builder(name)
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram(withHistogram)
+                    .register(registry);
+        }
+
+        public <T> Mono<T> time(Mono<T> source) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return source.doFinally(signal -> record(signal, start));
+            });
+        }
+
+        public <T> Flux<T> time(Flux<T> source) {
+            return Flux.defer(() -> {
+                long start = System.nanoTime();
+                return source.doFinally(signal -> record(signal, start));
+            });
+        }
+
+        private void record(SignalType signal, long start) {
+            long elapsed = System.nanoTime() - start;
+            Timer timer;
+            if (signal == SignalType.ON_ERROR) {
+                timer = error != null ? error : (error = timer("error", false));
+            } else if (signal == SignalType.CANCEL) {
+                timer = cancel != null ? cancel : (cancel = timer("cancel", false));
+            } else {
+                timer = success != null ? success : (success = timer("success", histogram));
+            }
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.reactive.nexo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.nexo.dto.ScheduleChangeEvent;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import com.reactive.nexo.repository.ScheduleOutboxBatchRepository;
+import com.reactive.nexo.repository.ScheduleOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Escritura en la bandeja de salida. Quien la invoca lo hace dentro de la transacción que guarda la cita, así
+// que el evento existe si y solo si el cambio se confirmó; ScheduleOutboxRelay se encarga de publicarlo. En la
+// misma transacción se incrementa la versión de los listados del empleado y del usuario (ScheduleVersions)
+@Service
+@RequiredArgsConstructor
+public class ScheduleOutbox {
+
+    private final ScheduleOutboxRepository outboxRepository;
+    private final ScheduleOutboxBatchRepository outboxBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final ScheduleVersions scheduleVersions;
+
+    public Mono<Schedule> created(Schedule schedule) {
+        return record(ScheduleChangeEvent.Type.CREATED, schedule).thenReturn(schedule);
+    }
+
+    public Mono<Schedule> updated(Schedule schedule) {
+        return record(ScheduleChangeEvent.Type.UPDATED, schedule).thenReturn(schedule);
+    }
+
+    // La cita cambió de empleado o de usuario: los listados anteriores también pierden la cita
+    public Mono<Schedule> updated(Schedule schedule, Long previousEmployeeId, Long previousUserId) {
+        return Mono.defer(() -> outboxRepository.save(toEvent(ScheduleChangeEvent.Type.UPDATED, schedule,
+                        LocalDateTime.now())))
+                .then(scheduleVersions.bump(Arrays.asList(schedule.getEmployeeId(), previousEmployeeId),
+                        Arrays.asList(schedule.getUserId(), previousUserId)))
+                .thenReturn(schedule);
+    }
+
+    public Mono<Void> deleted(Schedule schedule) {
+        return record(ScheduleChangeEvent.Type.DELETED, schedule);
+    }
+
+    public Mono<Void> createdAll(List<Schedule> schedules) {
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ScheduleOutboxEvent> events = new ArrayList<>(schedules.size());
+            for (Schedule schedule : schedules) {
+                events.add(toEvent(ScheduleChangeEvent.Type.CREATED, schedule, now));
+            }
+            return outboxBatchRepository.insertAll(events)
+                    .then(scheduleVersions.bump(schedules.stream().map(Schedule::getEmployeeId).toList(),
+                            schedules.stream().map(Schedule::getUserId).toList()));
+        });
+    }
+
+    private Mono<Void> record(ScheduleChangeEvent.Type type, Schedule schedule) {
+        return Mono.defer(() -> outboxRepository.save(toEvent(type, schedule, LocalDateTime.now())))
+                .then(scheduleVersions.bump(schedule));
+    }
+
+    private ScheduleOutboxEvent toEvent(ScheduleChangeEvent.Type type, Schedule schedule, LocalDateTime now) {
+        try {
+            return new ScheduleOutboxEvent(null, schedule.getId(), type,
+                    objectMapper.writeValueAsString(schedule), now, null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize schedule " + schedule.getId(), e);
+        }
+    }
+}
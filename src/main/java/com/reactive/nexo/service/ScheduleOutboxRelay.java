@@ -0,0 +1,124 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.ScheduleOutboxEvent;
+import com.reactive.nexo.repository.ScheduleOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Vacía la bandeja de salida hacia el ScheduleEventPublisher: en cada ciclo lee lotes de eventos pendientes
+// por orden de id hasta encontrar uno incompleto, los publica y los marca como publicados. La entrega es al
+// menos una vez: si el proceso cae entre publicar y marcar, el lote se vuelve a enviar. Con varios nodos el
+// relay debe habilitarse en uno solo (o los consumidores descartar duplicados por id)
+@Component
+@Slf4j
+public class ScheduleOutboxRelay {
+
+    private final ScheduleOutboxRepository outboxRepository;
+    private final ScheduleEventPublisher publisher;
+    private final ScheduleMetrics metrics;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private volatile double lagSeconds;
+
+    public ScheduleOutboxRelay(ScheduleOutboxRepository outboxRepository,
+                               ScheduleEventPublisher publisher,
+                               ScheduleMetrics metrics,
+                               @Value("${schedule.outbox.relay.enabled:true}") boolean enabled,
+                               @Value("${schedule.outbox.relay.batch-size:200}") int batchSize,
+                               @Value("${schedule.outbox.relay.poll-interval:1s}") Duration pollInterval,
+                               @Value("${schedule.outbox.retention:7d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        metrics.outboxLag(() -> lagSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Schedule outbox relay disabled on this node");
+            return;
+        }
+        // Un ciclo lento no se solapa con el siguiente: los ticks que llegan mientras tanto se descartan
+        subscriptions.add(Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> drain()
+                        .then(updateLag())
+                        .onErrorResume(e -> {
+                            log.warn("Schedule outbox relay cycle failed, retrying in {}: {}", pollInterval, e.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+        subscriptions.add(Flux.interval(Duration.ofHours(1))
+                .onBackpressureDrop()
+                .concatMap(tick -> outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention))
+                        .doOnNext(deleted -> {
+                            if (deleted > 0) {
+                                log.info("Removed {} published outbox events older than {}", deleted, retention);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Could not purge published outbox events: {}", e.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    // Eventos publicados en este ciclo
+    public Mono<Long> drain() {
+        return Mono.defer(this::drainBatch)
+                .repeat()
+                .takeUntil(published -> published < batchSize)
+                .reduce(0L, (total, published) -> total + published);
+    }
+
+    private Mono<Integer> drainBatch() {
+        return outboxRepository.findPending(batchSize)
+                .collectList()
+                .flatMap(events -> events.isEmpty()
+                        ? Mono.just(0)
+                        : publisher.publish(events)
+                                .then(Mono.defer(() -> markPublished(events)))
+                                .thenReturn(events.size()));
+    }
+
+    private Mono<Integer> markPublished(List<ScheduleOutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = events.stream().map(ScheduleOutboxEvent::getId).toList();
+        return outboxRepository.markPublished(ids, now)
+                .doOnNext(updated -> events.forEach(event ->
+                        metrics.outboxPublished(Duration.between(event.getCreatedAt(), now))));
+    }
+
+    private Mono<Void> updateLag() {
+        return outboxRepository.findFirstByPublishedAtIsNullOrderById()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis() / 1000.0)
+                .defaultIfEmpty(0.0)
+                .doOnNext(lag -> lagSeconds = lag)
+                .then();
+    }
+}
@@ -0,0 +1,18 @@
+package com.reactive.nexo.service;
+
+import java.time.LocalDateTime;
+
+// Predicado de solapamiento compartido por las validaciones en memoria; equivale al de
+// countOverlappingSchedulesFor* en ScheduleRepository
+final class ScheduleOverlap {
+
+    private ScheduleOverlap() {
+    }
+
+    static boolean overlaps(LocalDateTime existingStart, LocalDateTime existingEnd,
+                            LocalDateTime startAt, LocalDateTime endAt) {
+        return (!existingStart.isAfter(startAt) && existingEnd.isAfter(startAt))
+                || (existingStart.isBefore(endAt) && !existingEnd.isBefore(endAt))
+                || (!existingStart.isBefore(startAt) && !existingEnd.isAfter(endAt));
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactive.nexo.service;
+
+import io.r2dbc.spi.Row;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+// Codifica filas de la consulta de exportación directamente desde el Row de R2DBC, sin crear entidades.
+// Las filas se acumulan en un bloque que se vuelca a un DataBuffer cuando se llena
+interface ScheduleRowEncoder {
+
+    String COLUMNS = "id, employee_id, user_id, start_at, end_at, headquarters, office, in_person, group_session";
+
+    DataBuffer header(DataBufferFactory factory);
+
+    // true si el bloque quedó lleno y debe volcarse con flush antes de la siguiente fila
+    boolean append(Row row);
+
+    DataBuffer flush(DataBufferFactory factory);
+
+    // Filas pendientes y marca de fin
+    DataBuffer finish(DataBufferFactory factory);
+}
@@ -0,0 +1,387 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.dto.CreateScheduleSeriesRequest;
+import com.reactive.nexo.dto.ScheduleOccurrenceOverrideRequest;
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.model.ScheduleSeries;
+import com.reactive.nexo.model.ScheduleSeriesOverride;
+import com.reactive.nexo.repository.ScheduleRepository;
+import com.reactive.nexo.repository.ScheduleSeriesOverrideRepository;
+import com.reactive.nexo.repository.ScheduleSeriesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Series de citas recurrentes: se guarda la regla y solo las excepciones; las ocurrencias se calculan
+// bajo demanda para la ventana pedida
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSeriesService {
+
+    private static final Comparator<Schedule> BY_START = Comparator.comparing(Schedule::getStartAt);
+
+    private final ScheduleSeriesRepository seriesRepository;
+    private final ScheduleSeriesOverrideRepository overrideRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleBookingLocks bookingLocks;
+    private final ScheduleConnectionScope connectionScope;
+    private final ScheduleCache scheduleCache;
+    private final ScheduleVersions scheduleVersions;
+    private final TransactionalOperator transactionalOperator;
+    // La agenda expande las series con este servicio: se obtiene al usarla para no formar un ciclo de beans
+    private final ObjectProvider<ScheduleAgendaService> agendaService;
+
+    public Mono<ScheduleSeries> getSeriesById(Long id) {
+        return seriesRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Series not found")));
+    }
+
+    public Mono<ScheduleSeries> createSeries(CreateScheduleSeriesRequest request) {
+        if (request.getEmployeeId() == null || request.getUserId() == null
+                || request.getStartAt() == null || request.getEndAt() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "employeeId, userId, startAt and endAt are required"));
+        }
+        if (request.getStartAt().isAfter(request.getEndAt())) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start time must be before end time"));
+        }
+
+        RecurrenceRule rule = RecurrenceRule.parse(request.getRecurrence());
+        SeriesTimeline timeline = new SeriesTimeline(rule, request.getStartAt(), request.getEndAt());
+        if (!timeline.startsOnRule()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "startAt must fall on one of the BYDAY days"));
+        }
+        if (rule.getUntil() != null && rule.getUntil().isBefore(request.getStartAt())) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "UNTIL must not be before startAt"));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ScheduleSeries series = new ScheduleSeries(null, request.getEmployeeId(), request.getUserId(),
+                request.getStartAt(), request.getEndAt(), rule.toString(), timeline.lastEnd(),
+                request.getDetails(), request.getHeadquarters(), request.getOffice(),
+                request.getInPerson() != null ? request.getInPerson() : false, now, now);
+
+        return bookingLocks.withEmployeeAndUser(series.getEmployeeId(), series.getUserId(), () ->
+                validateSeriesConflicts(series, timeline)
+                        .then(Mono.defer(() -> transactionalOperator.transactional(seriesRepository.save(series)
+                                .flatMap(saved -> bumpVersions(saved).thenReturn(saved))))))
+                .doOnNext(this::invalidate)
+                .flatMap(saved -> agendaService.getObject()
+                        .refreshSeries(saved, saved.getStartAt(), saved.getLastEndAt())
+                        .thenReturn(saved));
+    }
+
+    public Mono<Void> deleteSeries(Long id) {
+        // Las excepciones se eliminan en cascada por la clave foránea
+        return getSeriesById(id).flatMap(series -> transactionalOperator.transactional(seriesRepository.delete(series)
+                        .then(bumpVersions(series)))
+                .doOnSuccess(v -> invalidate(series))
+                .then(Mono.defer(() -> agendaService.getObject()
+                        .refreshSeries(series, series.getStartAt(), series.getLastEndAt()))));
+    }
+
+    public Flux<Schedule> getOccurrences(Long seriesId, LocalDateTime from, LocalDateTime to) {
+        return getSeriesById(seriesId).flatMapMany(series -> expand(Flux.just(series), from, to));
+    }
+
+    public Flux<Schedule> expandForEmployee(Long employeeId, LocalDateTime from, LocalDateTime to) {
+        return expand(seriesRepository.findActiveForEmployee(employeeId, from, to), from, to);
+    }
+
+    public Flux<Schedule> expandForEmployees(Collection<Long> employeeIds, LocalDateTime from, LocalDateTime to) {
+        return expand(seriesRepository.findActiveForEmployees(employeeIds, from, to), from, to);
+    }
+
+    public Flux<Schedule> expandForUser(Long userId, LocalDateTime from, LocalDateTime to) {
+        return expand(seriesRepository.findActiveForUser(userId, from, to), from, to);
+    }
+
+    // office null: todas las oficinas de la sede
+    public Flux<Schedule> expandForHeadquarters(String headquarters, String office, LocalDateTime from,
+                                                LocalDateTime to) {
+        return expand(seriesRepository.findActiveForHeadquarters(headquarters, office, from, to), from, to);
+    }
+
+    public Mono<ScheduleSeriesOverride> overrideOccurrence(Long seriesId, LocalDateTime originalStartAt,
+                                                           ScheduleOccurrenceOverrideRequest request) {
+        return getSeriesById(seriesId).flatMap(series -> {
+            SeriesTimeline timeline = timeline(series);
+            if (!timeline.hasOccurrenceAt(originalStartAt)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Occurrence not found"));
+            }
+            LocalDateTime startAt = request.getStartAt() != null ? request.getStartAt() : originalStartAt;
+            LocalDateTime endAt = request.getEndAt() != null ? request.getEndAt()
+                    : startAt.plus(timeline.getDuration());
+            if (startAt.isAfter(endAt)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start time must be before end time"));
+            }
+            String details = request.getDetails() != null ? request.getDetails() : series.getDetails();
+            boolean moved = !startAt.equals(originalStartAt) || !endAt.equals(originalStartAt.plus(timeline.getDuration()));
+
+            return bookingLocks.withEmployeeAndUser(series.getEmployeeId(), series.getUserId(), () ->
+                    (moved ? validateMovedOccurrence(series, originalStartAt, startAt, endAt) : Mono.<Void>empty())
+                            .then(Mono.defer(() -> saveOverride(series, originalStartAt, false, startAt, endAt, details))))
+                    .doOnNext(saved -> invalidate(series))
+                    // Días de la ocurrencia original y de la movida
+                    .flatMap(saved -> agendaService.getObject()
+                            .refreshSeries(series, originalStartAt, originalStartAt.plus(timeline.getDuration()))
+                            .then(agendaService.getObject().refreshSeries(series, startAt, endAt))
+                            .thenReturn(saved));
+        });
+    }
+
+    public Mono<Void> cancelOccurrence(Long seriesId, LocalDateTime originalStartAt) {
+        return getSeriesById(seriesId).flatMap(series -> {
+            SeriesTimeline timeline = timeline(series);
+            if (!timeline.hasOccurrenceAt(originalStartAt)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Occurrence not found"));
+            }
+            // Mismos cerrojos que overrideOccurrence: una cancelación no puede intercalarse con un movimiento
+            return bookingLocks.withEmployeeAndUser(series.getEmployeeId(), series.getUserId(), () ->
+                            saveOverride(series, originalStartAt, true, null, null, null))
+                    .doOnNext(saved -> invalidate(series))
+                    .then(Mono.defer(() -> agendaService.getObject()
+                            .refreshSeries(series, originalStartAt, originalStartAt.plus(timeline.getDuration()))));
+        });
+    }
+
+    // Las ocurrencias no se guardan en la caché, pero los listados del empleado y del usuario que las incluyen
+    // (lecturas compartidas) tienen que enterarse del cambio
+    private void invalidate(ScheduleSeries series) {
+        scheduleCache.invalidate(new ScheduleInvalidation(null, series.getEmployeeId(), series.getUserId(), null, null));
+    }
+
+    // Carga en una sola consulta las series de los empleados y usuarios dados activas en la ventana, para
+    // validar en memoria cualquier número de citas contra ellas
+    public Mono<SeriesConflicts> conflictsFor(Collection<Long> employeeIds, Collection<Long> userIds,
+                                              LocalDateTime from, LocalDateTime to) {
+        return withOverrides(seriesRepository.findActiveForEmployeesOrUsers(employeeIds, userIds, from, to))
+                .map(SeriesConflicts::new);
+    }
+
+    private Mono<Void> validateSeriesConflicts(ScheduleSeries series, SeriesTimeline timeline) {
+        // Citas individuales: una comprobación aritmética por cita, sin expandir la serie
+        Mono<Void> scheduleConflicts = scheduleRepository
+                .findForEmployeeOrUserWithin(series.getEmployeeId(), series.getUserId(),
+                        series.getStartAt(), series.getLastEndAt())
+                .filter(schedule -> timeline.overlaps(schedule.getStartAt(), schedule.getEndAt()))
+                .next()
+                .flatMap(schedule -> Mono.error(overlapError(series, schedule.getEmployeeId())));
+
+        // Otras series: comparación dentro de un hiperperiodo más las ocurrencias movidas
+        Mono<Void> seriesConflicts = withOverrides(seriesRepository.findConcurrentSeries(series.getEmployeeId(),
+                        series.getUserId(), series.getStartAt(), series.getLastEndAt(), null))
+                .flatMap(existing -> {
+                    for (EffectiveSeries other : existing) {
+                        boolean conflict = timeline.conflictsWith(other.timeline())
+                                || other.moved().stream().anyMatch(o -> timeline.overlaps(o.getStartAt(), o.getEndAt()));
+                        if (conflict) {
+                            return Mono.error(overlapError(series, other.series().getEmployeeId()));
+                        }
+                    }
+                    return Mono.empty();
+                });
+
+        return scheduleConflicts.then(seriesConflicts);
+    }
+
+    // Solo se ignora la propia ocurrencia que se mueve; las demás de la serie sí cuentan como conflicto
+    private Mono<Void> validateMovedOccurrence(ScheduleSeries series, LocalDateTime originalStartAt,
+                                               LocalDateTime startAt, LocalDateTime endAt) {
+        Mono<Long> employeeOverlaps = scheduleRepository.countOverlappingSchedulesForEmployee(
+                series.getEmployeeId(), startAt, endAt, null);
+        Mono<Long> userOverlaps = scheduleRepository.countOverlappingSchedulesForUser(
+                series.getUserId(), startAt, endAt, null);
+        Mono<SeriesConflicts> seriesConflicts = conflictsFor(List.of(series.getEmployeeId()),
+                List.of(series.getUserId()), startAt, endAt);
+
+        return connectionScope.single(Mono.zip(employeeOverlaps, userOverlaps, seriesConflicts))
+                .flatMap(tuple -> {
+                    SeriesConflicts conflicts = tuple.getT3();
+                    if (tuple.getT1() > 0 || conflicts.employeeConflict(series.getEmployeeId(), startAt, endAt,
+                            series.getId(), originalStartAt)) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Employee has overlapping schedule"));
+                    }
+                    if (tuple.getT2() > 0 || conflicts.userConflict(series.getUserId(), startAt, endAt,
+                            series.getId(), originalStartAt)) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "User has overlapping schedule"));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    // La excepción y la versión de los listados del empleado y del usuario en la misma transacción
+    private Mono<ScheduleSeriesOverride> saveOverride(ScheduleSeries series, LocalDateTime originalStartAt,
+                                                      boolean cancelled, LocalDateTime startAt, LocalDateTime endAt,
+                                                      String details) {
+        return transactionalOperator.transactional(overrideRepository
+                .findBySeriesIdAndOriginalStartAt(series.getId(), originalStartAt)
+                .defaultIfEmpty(new ScheduleSeriesOverride(null, series.getId(), originalStartAt, false,
+                        null, null, null, LocalDateTime.now()))
+                .flatMap(override -> {
+                    override.setCancelled(cancelled);
+                    override.setStartAt(startAt);
+                    override.setEndAt(endAt);
+                    override.setDetails(details);
+                    return overrideRepository.save(override);
+                })
+                .flatMap(saved -> bumpVersions(series).thenReturn(saved)));
+    }
+
+    private Mono<Void> bumpVersions(ScheduleSeries series) {
+        return scheduleVersions.bump(List.of(series.getEmployeeId()), List.of(series.getUserId()));
+    }
+
+    private Flux<Schedule> expand(Flux<ScheduleSeries> seriesFlux, LocalDateTime from, LocalDateTime to) {
+        return withOverrides(seriesFlux).flatMapMany(seriesList -> {
+            List<Flux<Schedule>> streams = new ArrayList<>();
+            for (EffectiveSeries effective : seriesList) {
+                streams.add(effective.occurrences(from, to));
+            }
+            return mergeByStart(streams);
+        });
+    }
+
+    private Mono<List<EffectiveSeries>> withOverrides(Flux<ScheduleSeries> seriesFlux) {
+        return seriesFlux.collectList().flatMap(seriesList -> {
+            if (seriesList.isEmpty()) {
+                return Mono.just(List.<EffectiveSeries>of());
+            }
+            List<Long> ids = seriesList.stream().map(ScheduleSeries::getId).toList();
+            return overrideRepository.findBySeriesIdIn(ids)
+                    .collectMultimap(ScheduleSeriesOverride::getSeriesId)
+                    .map(overrides -> seriesList.stream()
+                            .map(series -> new EffectiveSeries(series, timeline(series),
+                                    overrides.getOrDefault(series.getId(), List.of())))
+                            .toList());
+        });
+    }
+
+    private static SeriesTimeline timeline(ScheduleSeries series) {
+        return new SeriesTimeline(RecurrenceRule.parse(series.getRecurrence()), series.getStartAt(), series.getEndAt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Flux<Schedule> mergeByStart(List<Flux<Schedule>> streams) {
+        return Flux.mergeComparing(BY_START, streams.toArray(new Flux[0]));
+    }
+
+    private static ResponseStatusException overlapError(ScheduleSeries series, Long conflictingEmployeeId) {
+        String reason = series.getEmployeeId().equals(conflictingEmployeeId)
+                ? "Employee has overlapping schedule"
+                : "User has overlapping schedule";
+        return new ResponseStatusException(HttpStatus.CONFLICT, reason);
+    }
+
+    // Serie con sus excepciones indexadas por inicio original
+    private record EffectiveSeries(ScheduleSeries series, SeriesTimeline timeline,
+                                   Map<LocalDateTime, ScheduleSeriesOverride> overrides) {
+
+        EffectiveSeries(ScheduleSeries series, SeriesTimeline timeline, Collection<ScheduleSeriesOverride> overrides) {
+            this(series, timeline, overrides.stream()
+                    .collect(Collectors.toMap(ScheduleSeriesOverride::getOriginalStartAt, Function.identity())));
+        }
+
+        List<ScheduleSeriesOverride> moved() {
+            return overrides.values().stream()
+                    .filter(o -> !Boolean.TRUE.equals(o.getCancelled()))
+                    .toList();
+        }
+
+        // skipOriginalStartAt: ocurrencia (por su inicio original) que no se compara, o null
+        boolean overlaps(LocalDateTime startAt, LocalDateTime endAt, LocalDateTime skipOriginalStartAt) {
+            for (SeriesTimeline.Occurrence occurrence : timeline.occurrences(startAt, endAt)) {
+                if (!overrides.containsKey(occurrence.startAt())
+                        && !occurrence.startAt().equals(skipOriginalStartAt)
+                        && ScheduleOverlap.overlaps(occurrence.startAt(), occurrence.endAt(), startAt, endAt)) {
+                    return true;
+                }
+            }
+            return moved().stream()
+                    .filter(o -> !o.getOriginalStartAt().equals(skipOriginalStartAt))
+                    .anyMatch(o -> ScheduleOverlap.overlaps(o.getStartAt(), o.getEndAt(), startAt, endAt));
+        }
+
+        Flux<Schedule> occurrences(LocalDateTime from, LocalDateTime to) {
+            Flux<Schedule> regular = Flux.fromIterable(timeline.occurrences(from, to))
+                    .filter(o -> o.startAt().isBefore(to) && o.endAt().isAfter(from))
+                    .filter(o -> !overrides.containsKey(o.startAt()))
+                    .map(o -> toSchedule(o.startAt(), o.startAt(), o.endAt(), series.getDetails()));
+            Flux<Schedule> moved = Flux.fromIterable(moved())
+                    .filter(o -> o.getStartAt().isBefore(to) && o.getEndAt().isAfter(from))
+                    .sort(Comparator.comparing(ScheduleSeriesOverride::getStartAt))
+                    .map(o -> toSchedule(o.getOriginalStartAt(), o.getStartAt(), o.getEndAt(), o.getDetails()));
+            return Flux.mergeComparing(BY_START, regular, moved);
+        }
+
+        private Schedule toSchedule(LocalDateTime originalStartAt, LocalDateTime startAt, LocalDateTime endAt, String details) {
+            Schedule schedule = new Schedule(series.getEmployeeId(), series.getUserId(), startAt, endAt, details,
+                    series.getHeadquarters(), series.getOffice(), series.getInPerson(), false);
+            schedule.setCreatedAt(series.getCreatedAt());
+            schedule.setUpdatedAt(series.getUpdatedAt());
+            schedule.setSeriesId(series.getId());
+            schedule.setOriginalStartAt(originalStartAt);
+            return schedule;
+        }
+    }
+
+    // Series activas de un conjunto de empleados y usuarios, agrupadas para validar citas en memoria
+    public static final class SeriesConflicts {
+        private final Map<Long, List<EffectiveSeries>> byEmployee = new HashMap<>();
+        private final Map<Long, List<EffectiveSeries>> byUser = new HashMap<>();
+
+        private SeriesConflicts(List<EffectiveSeries> seriesList) {
+            for (EffectiveSeries effective : seriesList) {
+                byEmployee.computeIfAbsent(effective.series().getEmployeeId(), k -> new ArrayList<>()).add(effective);
+                byUser.computeIfAbsent(effective.series().getUserId(), k -> new ArrayList<>()).add(effective);
+            }
+        }
+
+        public boolean employeeConflict(Long employeeId, LocalDateTime startAt, LocalDateTime endAt) {
+            return conflict(byEmployee.get(employeeId), startAt, endAt, null, null);
+        }
+
+        public boolean userConflict(Long userId, LocalDateTime startAt, LocalDateTime endAt) {
+            return conflict(byUser.get(userId), startAt, endAt, null, null);
+        }
+
+        // Variante para mover una ocurrencia: se ignora solo esa ocurrencia de su serie
+        public boolean employeeConflict(Long employeeId, LocalDateTime startAt, LocalDateTime endAt,
+                                        Long seriesId, LocalDateTime originalStartAt) {
+            return conflict(byEmployee.get(employeeId), startAt, endAt, seriesId, originalStartAt);
+        }
+
+        public boolean userConflict(Long userId, LocalDateTime startAt, LocalDateTime endAt,
+                                    Long seriesId, LocalDateTime originalStartAt) {
+            return conflict(byUser.get(userId), startAt, endAt, seriesId, originalStartAt);
+        }
+
+        private static boolean conflict(List<EffectiveSeries> candidates, LocalDateTime startAt, LocalDateTime endAt,
+                                        Long seriesId, LocalDateTime originalStartAt) {
+            if (candidates == null) {
+                return false;
+            }
+            return candidates.stream()
+                    .anyMatch(effective -> effective.overlaps(startAt, endAt,
+                            effective.series().getId().equals(seriesId) ? originalStartAt : null));
+        }
+    }
+}
@@ -1,190 +1,575 @@
 package com.reactive.nexo.service;
 
+import com.reactive.nexo.dto.CountMode;
 import com.reactive.nexo.dto.CreateScheduleRequest;
 import com.reactive.nexo.dto.PagedResponse;
+import com.reactive.nexo.dto.PatchScheduleRequest;
+import com.reactive.nexo.dto.ScheduleCursor;
+import com.reactive.nexo.dto.SchedulePageRow;
+import com.reactive.nexo.dto.ScheduleSlot;
+import com.reactive.nexo.dto.ScheduleView;
 import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleArchiveRepository;
 import com.reactive.nexo.repository.ScheduleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ScheduleService {
     
+    private static final Comparator<Schedule> BY_START = Comparator.comparing(Schedule::getStartAt);
+    // Cita individual o apertura de sesión grupal: la franja ocupa todos los recursos
+    private static final Set<ConflictDimension> ALL_RESOURCES =
+            Collections.unmodifiableSet(EnumSet.allOf(ConflictDimension.class));
+    // Plaza en una sesión existente: el empleado y la oficina ya son los de la sesión
+    private static final Set<ConflictDimension> ATTENDEE_RESOURCES =
+            Collections.unmodifiableSet(EnumSet.of(ConflictDimension.USER, ConflictDimension.HEADQUARTERS));
+    
     private final ScheduleRepository scheduleRepository;
+    private final ScheduleConflictIndex conflictIndex;
+    private final ScheduleBookingLocks bookingLocks;
+    private final ScheduleSeriesService seriesService;
+    private final ScheduleCache scheduleCache;
+    private final ScheduleMetrics metrics;
+    private final GroupSessionService groupSessionService;
+    private final TransactionalOperator transactionalOperator;
+    private final ScheduleAgendaService agendaService;
+    private final ScheduleChangeStream changeStream;
+    private final ScheduleOutbox outbox;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final ScheduleArchiveRepository archiveRepository;
+    private final ScheduleArchiver archiver;
+    private final ScheduleConnectionScope connectionScope;
+    private final ScheduleSingleFlight singleFlight;
     
     public Flux<Schedule> getAllSchedules() {
         return scheduleRepository.findAll();
     }
     
     public Mono<PagedResponse<Schedule>> getAllSchedules(int page, int size) {
-        return scheduleRepository.count()
-                .flatMap(totalElements -> {
-                    PageRequest pageRequest = PageRequest.of(page, size);
-                    return scheduleRepository.findAll()
-                            .skip(page * size)
-                            .take(size)
-                            .collectList()
-                            .map(content -> {
-                                long totalPages = (totalElements + size - 1) / size;
-                                boolean isLast = page >= totalPages - 1;
-                                return new PagedResponse<>(content, page, size, totalElements, totalPages, isLast);
-                            });
-                });
+        return getAllSchedules(page, size, null, null, null, CountMode.EXACT);
     }
 
     public Mono<PagedResponse<Schedule>> getAllSchedules(int page, int size, LocalDateTime startAt, LocalDateTime endAt) {
-        Mono<Long> countMono;
+        return getAllSchedules(page, size, startAt, endAt, null, CountMode.EXACT);
+    }
+
+    public Mono<PagedResponse<Schedule>> getAllSchedules(int page, int size, LocalDateTime startAt, LocalDateTime endAt,
+                                                         String cursor, CountMode countMode) {
+        return getAllSchedules(page, size, startAt, endAt, cursor, countMode, ScheduleView.FULL);
+    }
+
+    // Con view=slot las citas solo traen las columnas de ScheduleSlot. Peticiones idénticas simultáneas (p. ej. la
+    // primera página al empezar el turno) comparten una sola consulta
+    public Mono<PagedResponse<Schedule>> getAllSchedules(int page, int size, LocalDateTime startAt, LocalDateTime endAt,
+                                                         String cursor, CountMode countMode, ScheduleView view) {
+        String normalizedCursor = cursor == null || cursor.isBlank() ? null : cursor;
+        return singleFlight.mono("page",
+                Arrays.asList(page, size, startAt, endAt, normalizedCursor, countMode, view),
+                () -> loadPage(page, size, startAt, endAt, normalizedCursor, countMode, view));
+    }
+
+    private Mono<PagedResponse<Schedule>> loadPage(int page, int size, LocalDateTime startAt, LocalDateTime endAt,
+                                                   String cursor, CountMode countMode, ScheduleView view) {
+        boolean slot = view == ScheduleView.SLOT;
+        if (page < 0 || size < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page must be >= 0 and size must be >= 1"));
+        }
+
+        boolean keyset = cursor != null && !cursor.isBlank();
+
+        // Se pide una fila extra para saber si existe una página siguiente sin depender del conteo
+        if (!keyset && countMode == CountMode.EXACT) {
+            // Página y total en una sola sentencia mediante COUNT(*) OVER()
+            Flux<SchedulePageRow> rowsFlux = slot
+                    ? scheduleRepository.findSlotPageWithTotal(startAt, endAt, size + 1, (long) page * size)
+                    : scheduleRepository.findPageWithTotal(startAt, endAt, size + 1, (long) page * size);
+            return rowsFlux
+                    .collectList()
+                    .flatMap(rows -> {
+                        List<Schedule> content = rows.stream().map(SchedulePageRow::toSchedule).toList();
+                        Mono<Long> totalMono;
+                        if (!rows.isEmpty()) {
+                            totalMono = Mono.just(rows.get(0).getTotalCount());
+                        } else if (page == 0) {
+                            totalMono = Mono.just(0L);
+                        } else {
+                            // Página fuera de rango: la ventana no devuelve filas, así que se cuenta aparte
+                            totalMono = countSchedules(startAt, endAt);
+                        }
+                        return totalMono.map(totalElements -> toPagedResponse(content, page, size, totalElements));
+                    });
+        }
+
         Flux<Schedule> dataFlux;
+        if (keyset) {
+            ScheduleCursor after = ScheduleCursor.decode(cursor);
+            dataFlux = slot
+                    ? scheduleRepository.findSlotPageAfter(startAt, endAt, after.getStartAt(), after.getId(), size + 1)
+                            .map(ScheduleSlot::toSchedule)
+                    : scheduleRepository.findPageAfter(startAt, endAt, after.getStartAt(), after.getId(), size + 1);
+        } else {
+            dataFlux = slot
+                    ? scheduleRepository.findSlotPage(startAt, endAt, size + 1, (long) page * size)
+                            .map(ScheduleSlot::toSchedule)
+                    : scheduleRepository.findPage(startAt, endAt, size + 1, (long) page * size);
+        }
+
+        Mono<Long> countMono = switch (countMode) {
+            case EXACT -> countSchedules(startAt, endAt);
+            case ESTIMATE -> estimateSchedules(startAt, endAt);
+            case NONE -> Mono.just(-1L);
+        };
 
+        // Conteo y datos se ejecutan en paralelo en lugar de encadenados, en tubería sobre una misma conexión
+        return connectionScope.single(Mono.zip(countMono, dataFlux.collectList()))
+                .map(tuple -> toPagedResponse(tuple.getT2(), page, size, tuple.getT1()));
+    }
+
+    private PagedResponse<Schedule> toPagedResponse(List<Schedule> rows, int page, int size, long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<Schedule> content = hasNext ? rows.subList(0, size) : rows;
+        long totalPages = totalElements < 0 ? -1 : (totalElements + size - 1) / size;
+        String nextCursor = null;
+        if (hasNext) {
+            Schedule lastRow = content.get(content.size() - 1);
+            nextCursor = new ScheduleCursor(lastRow.getStartAt(), lastRow.getId()).encode();
+        }
+        return new PagedResponse<>(content, page, size, totalElements, totalPages, !hasNext, nextCursor);
+    }
+
+    private Mono<Long> countSchedules(LocalDateTime startAt, LocalDateTime endAt) {
         if (startAt != null && endAt != null) {
-            countMono = scheduleRepository.countByStartAtGreaterThanEqualAndEndAtLessThanEqual(startAt, endAt);
-            dataFlux = scheduleRepository.findByStartAtGreaterThanEqualAndEndAtLessThanEqual(startAt, endAt);
+            return scheduleRepository.countByStartAtGreaterThanEqualAndEndAtLessThanEqual(startAt, endAt);
         } else if (startAt != null) {
-            countMono = scheduleRepository.countByStartAtGreaterThanEqual(startAt);
-            dataFlux = scheduleRepository.findByStartAtGreaterThanEqual(startAt);
+            return scheduleRepository.countByStartAtGreaterThanEqual(startAt);
         } else if (endAt != null) {
-            countMono = scheduleRepository.countByEndAtLessThanEqual(endAt);
-            dataFlux = scheduleRepository.findByEndAtLessThanEqual(endAt);
-        } else {
-            countMono = scheduleRepository.count();
-            dataFlux = scheduleRepository.findAll();
-        }
-
-        return countMono.flatMap(totalElements ->
-                dataFlux
-                        .skip((long) page * size)
-                        .take(size)
-                        .collectList()
-                        .map(content -> {
-                            long totalPages = (totalElements + size - 1) / size;
-                            boolean isLast = page >= totalPages - 1;
-                            return new PagedResponse<>(content, page, size, totalElements, totalPages, isLast);
-                        })
-        );
+            return scheduleRepository.countByEndAtLessThanEqual(endAt);
+        }
+        return scheduleRepository.count();
+    }
+
+    private Mono<Long> estimateSchedules(LocalDateTime startAt, LocalDateTime endAt) {
+        if (startAt != null || endAt != null) {
+            // Las estadísticas de tabla no sirven para rangos filtrados
+            return countSchedules(startAt, endAt);
+        }
+        // Fuera de PostgreSQL (p. ej. H2) o sin estadísticas se recurre al conteo exacto
+        return scheduleRepository.estimateCount()
+                .filter(estimate -> estimate >= 0)
+                .switchIfEmpty(Mono.defer(scheduleRepository::count))
+                .onErrorResume(e -> scheduleRepository.count());
     }
     
     public Mono<Schedule> getScheduleById(Long id) {
-        return scheduleRepository.findById(id)
+        return scheduleCache.findById(id)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Schedule not found")));
     }
     
     public Flux<Schedule> getSchedulesByEmployeeId(Long employeeId) {
-        return scheduleRepository.findByEmployeeId(employeeId);
+        return getSchedulesByEmployeeId(employeeId, null, null, null);
+    }
+    
+    public Flux<Schedule> getSchedulesByEmployeeId(Long employeeId, LocalDateTime from, LocalDateTime to, Integer limit) {
+        return getSchedulesByEmployeeId(employeeId, from, to, limit, false, ScheduleView.FULL);
+    }
+    
+    // Con ventana completa se incluyen las ocurrencias de series recurrentes, expandidas solo dentro de [from, to).
+    // Las citas archivadas solo se consultan con history=true. Con view=slot SQL solo lee las columnas de
+    // ScheduleSlot y las citas devueltas no traen 'details'
+    public Flux<Schedule> getSchedulesByEmployeeId(Long employeeId, LocalDateTime from, LocalDateTime to, Integer limit,
+                                                   boolean history, ScheduleView view) {
+        return getSchedulesByEmployeeId(employeeId, from, to, limit, history, view, null);
+    }
+
+    // listVersion es la versión de ScheduleVersions que acompaña a la respuesta (ETag), leída antes de llamar: la
+    // caché no sirve entradas anteriores a ella y solo se comparten consultas que la leyeron igual
+    public Flux<Schedule> getSchedulesByEmployeeId(Long employeeId, LocalDateTime from, LocalDateTime to, Integer limit,
+                                                   boolean history, ScheduleView view, Long listVersion) {
+        // Solo se comparten consultas acotadas (ventana completa o límite): el resultado compartido queda en
+        // memoria, y el historial completo se sirve en streaming como siempre
+        if (limit == null && (from == null || to == null)) {
+            return loadEmployeeSchedules(employeeId, from, to, limit, history, view, listVersion);
+        }
+        return singleFlight.flux("employee", Arrays.asList(employeeId, from, to, limit, history, view, listVersion),
+                () -> loadEmployeeSchedules(employeeId, from, to, limit, history, view, listVersion));
+    }
+
+    private Flux<Schedule> loadEmployeeSchedules(Long employeeId, LocalDateTime from, LocalDateTime to, Integer limit,
+                                                 boolean history, ScheduleView view, Long listVersion) {
+        return validateHistoryWindow(from, to, limit)
+                .thenMany(Flux.defer(() -> {
+                    int max = limit == null ? Integer.MAX_VALUE : limit;
+                    Flux<Schedule> stored;
+                    if (scheduleCache.coversEmployeeWindow(from, to)) {
+                        stored = scheduleCache.findByEmployeeWithin(employeeId, from, to, listVersion);
+                    } else if (view == ScheduleView.SLOT) {
+                        stored = scheduleRepository.findSlotsByEmployeeIdWithin(employeeId, from, to, max)
+                                .map(ScheduleSlot::toSchedule);
+                    } else {
+                        stored = scheduleRepository.findByEmployeeIdWithin(employeeId, from, to, max);
+                    }
+                    if (history && reachesArchive(from)) {
+                        stored = Flux.mergeComparing(BY_START,
+                                archiveRepository.findByEmployeeIdWithin(employeeId, from, to, max), stored).take(max);
+                    }
+                    if (from == null || to == null) {
+                        return stored;
+                    }
+                    return Flux.mergeComparing(BY_START, stored, seriesService.expandForEmployee(employeeId, from, to))
+                            .take(max);
+                }));
     }
     
     public Flux<Schedule> getSchedulesByUserId(Long userId) {
-        return scheduleRepository.findByUserId(userId);
+        return getSchedulesByUserId(userId, null, null, null);
+    }
+    
+    public Flux<Schedule> getSchedulesByUserId(Long userId, LocalDateTime from, LocalDateTime to, Integer limit) {
+        return getSchedulesByUserId(userId, from, to, limit, false, ScheduleView.FULL);
+    }
+    
+    public Flux<Schedule> getSchedulesByUserId(Long userId, LocalDateTime from, LocalDateTime to, Integer limit,
+                                               boolean history, ScheduleView view) {
+        return getSchedulesByUserId(userId, from, to, limit, history, view, null);
+    }
+
+    public Flux<Schedule> getSchedulesByUserId(Long userId, LocalDateTime from, LocalDateTime to, Integer limit,
+                                               boolean history, ScheduleView view, Long listVersion) {
+        return validateHistoryWindow(from, to, limit)
+                .thenMany(Flux.defer(() -> {
+                    int max = limit == null ? Integer.MAX_VALUE : limit;
+                    Flux<Schedule> stored;
+                    if (from == null && to == null) {
+                        // El historial completo del usuario (sin ventana) es lo que consultan las apps de pacientes
+                        stored = scheduleCache.findByUser(userId, listVersion).take(max);
+                    } else if (view == ScheduleView.SLOT) {
+                        stored = scheduleRepository.findSlotsByUserIdWithin(userId, from, to, max)
+                                .map(ScheduleSlot::toSchedule);
+                    } else {
+                        stored = scheduleRepository.findByUserIdWithin(userId, from, to, max);
+                    }
+                    if (history && reachesArchive(from)) {
+                        stored = Flux.mergeComparing(BY_START,
+                                archiveRepository.findByUserIdWithin(userId, from, to, max), stored).take(max);
+                    }
+                    if (from == null || to == null) {
+                        return stored;
+                    }
+                    return Flux.mergeComparing(BY_START, stored, seriesService.expandForUser(userId, from, to))
+                            .take(max);
+                }));
+    }
+    
+    // Una ventana que empieza después del corte del archivador no puede contener citas archivadas
+    private boolean reachesArchive(LocalDateTime from) {
+        return from == null || from.isBefore(LocalDateTime.now().minus(archiver.getRetention()));
+    }
+    
+    private Mono<Void> validateHistoryWindow(LocalDateTime from, LocalDateTime to, Integer limit) {
+        if (limit != null && limit <= 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive"));
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to"));
+        }
+        return Mono.empty();
     }
     
     public Mono<Schedule> createSchedule(CreateScheduleRequest request) {
+        if (request.getEmployeeId() == null || request.getUserId() == null
+                || request.getStartAt() == null || request.getEndAt() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "employeeId, userId, startAt and endAt are required"));
+        }
         if (request.getStartAt().isAfter(request.getEndAt())) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start time must be before end time"));
         }
+        if (request.getCapacity() != null && request.getCapacity() < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "capacity must be positive"));
+        }
         
         boolean isGroupSession = request.getGroupSession() != null ? request.getGroupSession() : false;
         
-        return validateNoOverlap(request.getEmployeeId(), request.getUserId(), 
-                               request.getStartAt(), request.getEndAt(), null, isGroupSession)
-                .then(scheduleRepository.save(new Schedule(
-                        request.getEmployeeId(),
-                        request.getUserId(),
-                        request.getStartAt(),
-                        request.getEndAt(),
-                        request.getDetails(),
-                        isGroupSession
-                )));
+        // Validación y guardado bajo el cerrojo del empleado, del usuario y de la sede (si es presencial) para
+        // evitar dobles reservas. La cita y su evento de la bandeja de salida se confirman en la misma transacción
+        return bookingLocks.withEmployeeUserAndHeadquarters(request.getEmployeeId(), request.getUserId(),
+                        onSiteHeadquarters(request), () -> {
+                    Schedule schedule = toSchedule(request, isGroupSession);
+                    Mono<Schedule> booking = isGroupSession
+                            ? bookGroupSession(schedule, request.getCapacity())
+                            : validateResources(schedule, null, ALL_RESOURCES, false)
+                                    .then(scheduleRepository.save(schedule));
+                    return transactionalOperator.transactional(booking.flatMap(outbox::created))
+                            .doOnNext(conflictIndex::put)
+                            .doOnNext(scheduleCache::invalidate)
+                            .doOnNext(changeStream::created)
+                            .flatMap(saved -> agendaService.refresh(saved).thenReturn(saved));
+                })
+                .onErrorMap(DataIntegrityViolationException.class, this::toOverlapConflict);
     }
     
     public Mono<Schedule> updateSchedule(Long id, CreateScheduleRequest request) {
+        return updateSchedule(id, request, null);
+    }
+    
+    // expectedVersion: versión que el cliente leyó; null acepta la versión actual
+    private Mono<Schedule> updateSchedule(Long id, CreateScheduleRequest request, Long expectedVersion) {
+        if (request.getEmployeeId() == null || request.getUserId() == null
+                || request.getStartAt() == null || request.getEndAt() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "employeeId, userId, startAt and endAt are required"));
+        }
         if (request.getStartAt().isAfter(request.getEndAt())) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start time must be before end time"));
         }
+        if (request.getCapacity() != null && request.getCapacity() < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "capacity must be positive"));
+        }
         
         boolean isGroupSession = request.getGroupSession() != null ? request.getGroupSession() : false;
         
-        return scheduleRepository.findById(id)
+        return bookingLocks.withEmployeeUserAndHeadquarters(request.getEmployeeId(), request.getUserId(),
+                        onSiteHeadquarters(request), () ->
+                scheduleRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Schedule not found")))
-                .flatMap(existingSchedule -> 
-                        validateNoOverlap(request.getEmployeeId(), request.getUserId(), 
-                                        request.getStartAt(), request.getEndAt(), id, isGroupSession)
+                .flatMap(existingSchedule -> {
+                    if (expectedVersion != null && !expectedVersion.equals(existingSchedule.getVersion())) {
+                        return Mono.error(staleVersion());
+                    }
+                    // Las claves anteriores (empleado, días, usuario) también quedan obsoletas tras el cambio
+                    ScheduleInvalidation previous = ScheduleInvalidation.of(existingSchedule);
+                    Set<ScheduleAgendaService.Bucket> agendaBuckets = agendaService.bucketsOf(existingSchedule);
+                    Long previousEmployeeId = existingSchedule.getEmployeeId();
+                    String previousHeadquarters = existingSchedule.getHeadquarters();
+                    boolean wasGroupSession = Boolean.TRUE.equals(existingSchedule.getGroupSession());
+                    Mono<Schedule> update;
+                    if (wasGroupSession || isGroupSession) {
+                        // Se libera la plaza anterior y se vuelve a reservar en la sesión de destino; la
+                        // transacción común evita que un rechazo deje la plaza liberada
+                        update = (wasGroupSession ? groupSessionService.leave(existingSchedule) : Mono.<Void>empty())
                                 .then(Mono.defer(() -> {
-                                    existingSchedule.setEmployeeId(request.getEmployeeId());
-                                    existingSchedule.setUserId(request.getUserId());
-                                    existingSchedule.setStartAt(request.getStartAt());
-                                    existingSchedule.setEndAt(request.getEndAt());
-                                    existingSchedule.setDetails(request.getDetails());
-                                    existingSchedule.setGroupSession(isGroupSession);
-                                    existingSchedule.setUpdatedAt(LocalDateTime.now());
-                                    existingSchedule.setHeadquarters(request.getHeadquarters());
-                                    existingSchedule.setOffice(request.getOffice());
-                                    existingSchedule.setInPerson(request.getInPerson());
-                                    
+                                    applyRequest(existingSchedule, request, isGroupSession);
+                                    return isGroupSession
+                                            ? bookGroupSession(existingSchedule, request.getCapacity())
+                                            : validateResources(existingSchedule, id, ALL_RESOURCES, false)
+                                                    .then(scheduleRepository.save(existingSchedule));
+                                }));
+                    } else {
+                        update = validateResources(toSchedule(request, false), id, ALL_RESOURCES, false)
+                                .then(Mono.defer(() -> {
+                                    applyRequest(existingSchedule, request, false);
                                     return scheduleRepository.save(existingSchedule);
-                                }))
-                );
+                                }));
+                    }
+                    return transactionalOperator.transactional(update.flatMap(saved ->
+                                    outbox.updated(saved, previous.employeeId(), previous.userId())))
+                            .doOnNext(saved -> scheduleCache.invalidate(previous))
+                            .doOnNext(conflictIndex::put)
+                            .doOnNext(scheduleCache::invalidate)
+                            .doOnNext(saved -> changeStream.updated(saved,
+                                    previousEmployeeId.equals(saved.getEmployeeId()) ? null : previousEmployeeId,
+                                    Objects.equals(previousHeadquarters, saved.getHeadquarters()) ? null : previousHeadquarters))
+                            .flatMap(saved -> {
+                                agendaBuckets.addAll(agendaService.bucketsOf(saved));
+                                return agendaService.refresh(agendaBuckets).thenReturn(saved);
+                            });
+                }))
+                .onErrorMap(DataIntegrityViolationException.class, this::toOverlapConflict)
+                .onErrorMap(OptimisticLockingFailureException.class, e -> staleVersion());
     }
     
-    public Mono<Void> deleteSchedule(Long id) {
+    // Modificación parcial: si solo cambian los detalles no hay nada que validar y se emite un único UPDATE
+    // condicionado a la versión leída; si cambia la franja, el tipo de sesión o el sitio que ocupa (sede,
+    // oficina, presencialidad), se sigue el recorrido completo de updateSchedule para validar los recursos
+    public Mono<Schedule> patchSchedule(Long id, PatchScheduleRequest patch) {
         return scheduleRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Schedule not found")))
-                .flatMap(schedule -> scheduleRepository.delete(schedule));
-    }
-    
-    private Mono<Void> validateNoOverlap(Long employeeId, Long userId, 
-                                       LocalDateTime startAt, LocalDateTime endAt, Long excludeId, boolean isGroupSession) {
-        if (isGroupSession) {
-            // Para sesiones grupales, verificar si ya existe una sesión grupal exacta
-            return scheduleRepository.findExactGroupSession(employeeId, startAt, endAt, excludeId)
-                    .hasElements()
-                    .flatMap(hasExactGroupSession -> {
-                        if (hasExactGroupSession) {
-                            // Permitir solapamiento para sesiones grupales con horas exactas
-                            return Mono.empty();
-                        } else {
-                            // Si no hay sesión grupal exacta, verificar solapamientos normales
-                            return validateOverlapForIndividualSessions(employeeId, userId, startAt, endAt, excludeId);
-                        }
-                    });
-        } else {
-            // Para sesiones individuales, aplicar validación normal
-            return validateOverlapForIndividualSessions(employeeId, userId, startAt, endAt, excludeId);
-        }
+                .flatMap(current -> {
+                    if (patch.getVersion() != null && !patch.getVersion().equals(current.getVersion())) {
+                        return Mono.error(staleVersion());
+                    }
+                    boolean bookingChanged = changed(patch.getEmployeeId(), current.getEmployeeId())
+                            || changed(patch.getUserId(), current.getUserId())
+                            || changed(patch.getStartAt(), current.getStartAt())
+                            || changed(patch.getEndAt(), current.getEndAt())
+                            || changed(patch.getGroupSession(), Boolean.TRUE.equals(current.getGroupSession()))
+                            || changed(patch.getHeadquarters(), current.getHeadquarters())
+                            || changed(patch.getOffice(), current.getOffice())
+                            || changed(patch.getInPerson(), Boolean.TRUE.equals(current.getInPerson()));
+                    return bookingChanged
+                            ? updateSchedule(id, toRequest(current, patch), current.getVersion())
+                            : patchAttributes(current, patch);
+                });
     }
     
-    private Mono<Void> validateOverlapForIndividualSessions(Long employeeId, Long userId, 
-                                                           LocalDateTime startAt, LocalDateTime endAt, Long excludeId) {
-        Mono<Long> employeeOverlapCheck = scheduleRepository.countOverlappingSchedulesForEmployee(
-                employeeId, startAt, endAt, excludeId);
-        
-        Mono<Long> userOverlapCheck = scheduleRepository.countOverlappingSchedulesForUser(
-                userId, startAt, endAt, excludeId);
+    private Mono<Schedule> patchAttributes(Schedule current, PatchScheduleRequest patch) {
+        if (!changed(patch.getDetails(), current.getDetails())) {
+            return Mono.just(current);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = Update.update("details", patch.getDetails())
+                .set("updatedAt", now)
+                .set("version", current.getVersion() + 1);
         
-        return Mono.zip(employeeOverlapCheck, userOverlapCheck)
+        Set<ScheduleAgendaService.Bucket> agendaBuckets = agendaService.bucketsOf(current);
+        Query query = Query.query(Criteria.where("id").is(current.getId()).and("version").is(current.getVersion()));
+        return transactionalOperator.transactional(entityTemplate.update(query, update, Schedule.class)
+                        .flatMap(updated -> {
+                            // Otra escritura cambió la versión (o borró la cita) desde la lectura
+                            if (updated == 0) {
+                                return Mono.error(staleVersion());
+                            }
+                            current.setDetails(patch.getDetails());
+                            current.setUpdatedAt(now);
+                            current.setVersion(current.getVersion() + 1);
+                            return outbox.updated(current);
+                        }))
+                .doOnNext(scheduleCache::invalidate)
+                .doOnNext(saved -> changeStream.updated(saved, null, null))
+                .flatMap(saved -> agendaService.refresh(agendaBuckets).thenReturn(saved));
+    }
+    
+    private static boolean changed(Object requested, Object current) {
+        return requested != null && !requested.equals(current);
+    }
+    
+    private CreateScheduleRequest toRequest(Schedule current, PatchScheduleRequest patch) {
+        return new CreateScheduleRequest(
+                patch.getEmployeeId() != null ? patch.getEmployeeId() : current.getEmployeeId(),
+                patch.getUserId() != null ? patch.getUserId() : current.getUserId(),
+                patch.getStartAt() != null ? patch.getStartAt() : current.getStartAt(),
+                patch.getEndAt() != null ? patch.getEndAt() : current.getEndAt(),
+                patch.getDetails() != null ? patch.getDetails() : current.getDetails(),
+                patch.getHeadquarters() != null ? patch.getHeadquarters() : current.getHeadquarters(),
+                patch.getOffice() != null ? patch.getOffice() : current.getOffice(),
+                patch.getInPerson() != null ? patch.getInPerson() : current.getInPerson(),
+                patch.getGroupSession() != null ? patch.getGroupSession() : current.getGroupSession(),
+                patch.getCapacity());
+    }
+    
+    private static Schedule toSchedule(CreateScheduleRequest request, boolean isGroupSession) {
+        return new Schedule(
+                request.getEmployeeId(),
+                request.getUserId(),
+                request.getStartAt(),
+                request.getEndAt(),
+                request.getDetails(),
+                request.getHeadquarters(),
+                request.getOffice(),
+                request.getInPerson(),
+                isGroupSession
+        );
+    }
+    
+    private static String onSiteHeadquarters(CreateScheduleRequest request) {
+        return Boolean.TRUE.equals(request.getInPerson()) ? request.getHeadquarters() : null;
+    }
+    
+    private ResponseStatusException staleVersion() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Schedule was modified by another request");
+    }
+    
+    private void applyRequest(Schedule schedule, CreateScheduleRequest request, boolean isGroupSession) {
+        schedule.setEmployeeId(request.getEmployeeId());
+        schedule.setUserId(request.getUserId());
+        schedule.setStartAt(request.getStartAt());
+        schedule.setEndAt(request.getEndAt());
+        schedule.setDetails(request.getDetails());
+        schedule.setGroupSession(isGroupSession);
+        schedule.setUpdatedAt(LocalDateTime.now());
+        schedule.setHeadquarters(request.getHeadquarters());
+        schedule.setOffice(request.getOffice());
+        schedule.setInPerson(request.getInPerson());
+    }
+    
+    public Mono<Void> deleteSchedule(Long id) {
+        return scheduleRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Schedule not found")))
+                .flatMap(schedule -> {
+                    Mono<Void> leave = Boolean.TRUE.equals(schedule.getGroupSession())
+                            ? groupSessionService.leave(schedule)
+                            : Mono.empty();
+                    Mono<Void> delete = transactionalOperator.transactional(leave
+                            .then(scheduleRepository.delete(schedule))
+                            .then(outbox.deleted(schedule)));
+                    return delete.doOnSuccess(v -> {
+                        conflictIndex.remove(schedule.getId());
+                        scheduleCache.invalidate(schedule);
+                        changeStream.deleted(schedule);
+                    }).then(agendaService.refresh(schedule));
+                });
+    }
+    
+    // La restricción de exclusión de PostgreSQL detecta las dobles reservas que llegan desde otros nodos
+    private Throwable toOverlapConflict(DataIntegrityViolationException e) {
+        log.warn("Schedule rejected by database overlap constraint: {}", e.getMessage());
+        metrics.conflict("database", false);
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Schedule overlaps an existing booking");
+    }
+    
+    // Plaza en una sesión grupal: si ya existe la sesión del empleado en esa franja exacta se reserva con un
+    // UPDATE condicionado al aforo y solo se comprueban el usuario y la capacidad de la sede; si no, se abre una
+    // nueva tras comprobar que la franja está libre en todos los recursos
+    private Mono<Schedule> bookGroupSession(Schedule schedule, Integer capacity) {
+        return groupSessionService.findSession(schedule.getEmployeeId(), schedule.getStartAt(), schedule.getEndAt())
+                .flatMap(session -> validateResources(schedule, schedule.getId(), ATTENDEE_RESOURCES, true)
+                        .then(groupSessionService.admit(session, schedule)))
+                .switchIfEmpty(Mono.defer(() -> validateResources(schedule, schedule.getId(), ALL_RESOURCES, true)
+                        .then(groupSessionService.open(schedule, capacity))));
+    }
+    
+    // Todas las dimensiones pedidas en una sola evaluación (índice o consulta combinada) más las series del
+    // empleado y del usuario; el rechazo enumera cada recurso en conflicto y cuenta uno por uno en la métrica
+    private Mono<Void> validateResources(Schedule candidate, Long excludeId, Set<ConflictDimension> dimensions,
+                                         boolean isGroupSession) {
+        Long employeeId = candidate.getEmployeeId();
+        Long userId = candidate.getUserId();
+        LocalDateTime startAt = candidate.getStartAt();
+        LocalDateTime endAt = candidate.getEndAt();
+        return connectionScope.single(Mono.zip(conflictIndex.findConflicts(candidate, excludeId, dimensions),
+                        seriesService.conflictsFor(List.of(employeeId), List.of(userId), startAt, endAt)))
                 .flatMap(tuple -> {
-                    Long employeeOverlaps = tuple.getT1();
-                    Long userOverlaps = tuple.getT2();
-                    
-                    if (employeeOverlaps > 0) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, 
-                                "Employee has overlapping schedule"));
+                    Set<ConflictDimension> violated = EnumSet.noneOf(ConflictDimension.class);
+                    violated.addAll(tuple.getT1());
+                    ScheduleSeriesService.SeriesConflicts seriesConflicts = tuple.getT2();
+                    if (dimensions.contains(ConflictDimension.EMPLOYEE)
+                            && seriesConflicts.employeeConflict(employeeId, startAt, endAt)) {
+                        violated.add(ConflictDimension.EMPLOYEE);
+                    }
+                    if (dimensions.contains(ConflictDimension.USER)
+                            && seriesConflicts.userConflict(userId, startAt, endAt)) {
+                        violated.add(ConflictDimension.USER);
                     }
-                    
-                    if (userOverlaps > 0) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, 
-                                "User has overlapping schedule"));
+                    if (violated.isEmpty()) {
+                        return Mono.empty();
                     }
-                    
-                    return Mono.empty();
+                    violated.forEach(dimension -> metrics.conflict(dimension.getReason(), isGroupSession));
+                    return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                            ConflictDimension.describe(violated)));
                 });
     }
-}
\ No newline at end of file
+}
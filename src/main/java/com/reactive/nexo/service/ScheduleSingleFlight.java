@@ -0,0 +1,134 @@
+package com.reactive.nexo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Lecturas idénticas simultáneas (misma operación y mismos parámetros normalizados) comparten una sola consulta:
+// la primera la lanza y las que llegan mientras está en curso, o hasta 'window' después de terminar, reciben
+// el mismo resultado. Un error no se comparte con quien llega después y cualquier invalidación de caché vacía
+// la tabla, así que tras una escritura en este nodo la siguiente lectura siempre consulta. Cada entrada se retira
+// al vencer su ventana, de modo que la tabla solo retiene consultas en curso o recientes. Con la tabla llena
+// (max-keys claves vigentes) la lectura se ejecuta sin compartir
+@Component
+@Slf4j
+public class ScheduleSingleFlight {
+
+    private record Key(String operation, List<Object> parameters) {
+    }
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final ScheduleMetrics metrics;
+    private final boolean enabled;
+    private final Duration window;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Disposable subscription;
+
+    public ScheduleSingleFlight(ScheduleMetrics metrics,
+                                ScheduleInvalidationBus invalidationBus,
+                                @Value("${schedule.single-flight.enabled:true}") boolean enabled,
+                                @Value("${schedule.single-flight.window:100ms}") Duration window,
+                                @Value("${schedule.single-flight.max-keys:10000}") int maxKeys) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.window = window;
+        this.windowNanos = window.toNanos();
+        this.maxKeys = maxKeys;
+        this.subscription = invalidationBus.events()
+                .subscribe(invalidation -> flights.clear(), e -> log.error("Single-flight invalidation stream failed", e));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscription.dispose();
+    }
+
+    // parameters debe estar normalizado: dos peticiones equivalentes tienen que producir listas iguales
+    public <T> Mono<T> mono(String operation, List<Object> parameters, Supplier<Mono<T>> query) {
+        if (!enabled) {
+            return Mono.defer(query);
+        }
+        return Mono.defer(() -> this.<Mono<T>>join(operation, parameters, query, flight -> Mono.defer(query)
+                .doOnSuccess(value -> flight.complete())
+                .doOnError(e -> flight.fail())
+                .cache()));
+    }
+
+    // Los elementos llegan a cada suscriptor a medida que los emite la consulta (cache() los repite a los que
+    // se unen tarde), pero quedan retenidos hasta que vence la entrada: solo para consultas acotadas
+    public <T> Flux<T> flux(String operation, List<Object> parameters, Supplier<Flux<T>> query) {
+        if (!enabled) {
+            return Flux.defer(query);
+        }
+        return Flux.defer(() -> this.<Flux<T>>join(operation, parameters, query, flight -> Flux.defer(query)
+                .doOnComplete(flight::complete)
+                .doOnError(e -> flight.fail())
+                .cache()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P> P join(String operation, List<Object> parameters, Supplier<P> query, Function<Flight, P> share) {
+        Key key = new Key(operation, parameters);
+        long now = System.nanoTime();
+        Flight current = flights.get(key);
+        if (current == null || !current.fresh(now)) {
+            if (flights.size() >= maxKeys) {
+                flights.values().removeIf(flight -> !flight.fresh(now));
+                if (flights.size() >= maxKeys) {
+                    metrics.singleFlight(operation, "bypassed");
+                    return query.get();
+                }
+            }
+            // El publicador compartido es perezoso: si otra petición gana la entrada se descarta sin consultar
+            Flight created = new Flight(key, share::apply);
+            current = flights.compute(key, (k, existing) -> existing != null && existing.fresh(now) ? existing : created);
+            if (current == created) {
+                metrics.singleFlight(operation, "executed");
+                return (P) created.result;
+            }
+        }
+        metrics.singleFlight(operation, "coalesced");
+        return (P) current.result;
+    }
+
+    private final class Flight {
+
+        private final Key key;
+        private final Object result;
+        // 0 mientras la consulta está en curso
+        private volatile long completedAt;
+
+        Flight(Key key, Function<Flight, ?> share) {
+            this.key = key;
+            this.result = share.apply(this);
+        }
+
+        // Al vencer la ventana la entrada sale de la tabla y su resultado retenido queda libre
+        void complete() {
+            completedAt = Math.max(1, System.nanoTime());
+            Mono.delay(window).subscribe(tick -> flights.remove(key, this));
+        }
+
+        // Un error no se comparte con quien llegue después
+        void fail() {
+            flights.remove(key, this);
+        }
+
+        boolean fresh(long now) {
+            long completed = completedAt;
+            return completed == 0 || now - completed < windowNanos;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.reactive.nexo.service;
+
+import com.reactive.nexo.model.Schedule;
+import com.reactive.nexo.repository.ScheduleListVersionRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+// Versión de los listados de citas por empleado y por usuario, para responder GET condicionales (ETag) sin
+// leer ni serializar las citas. Cada escritura de citas, series, excepciones o archivo incrementa, en su misma
+// transacción, la versión de los empleados y usuarios afectados, así que la etiqueta es la misma en todos los
+// nodos y no puede adelantarse a los datos confirmados. La versión se lee antes que el cuerpo y las lecturas
+// que la reciben no aceptan resultados de caché cargados con una versión anterior
+@Component
+public class ScheduleVersions {
+
+    private final ScheduleListVersionRepository listVersionRepository;
+
+    public ScheduleVersions(ScheduleListVersionRepository listVersionRepository) {
+        this.listVersionRepository = listVersionRepository;
+    }
+
+    public Mono<Long> employeeVersion(Long employeeId) {
+        return listVersionRepository.find(ScheduleListVersionRepository.EMPLOYEE, employeeId);
+    }
+
+    public Mono<Long> userVersion(Long userId) {
+        return listVersionRepository.find(ScheduleListVersionRepository.USER, userId);
+    }
+
+    public static String employeeTag(long version) {
+        return "W/\"e" + version + '"';
+    }
+
+    public static String userTag(long version) {
+        return "W/\"u" + version + '"';
+    }
+
+    // Debe ejecutarse dentro de la transacción de la escritura
+    public Mono<Void> bump(Schedule schedule) {
+        return bump(List.of(schedule.getEmployeeId()), List.of(schedule.getUserId()));
+    }
+
+    // Empleados y después usuarios, cada grupo ordenado y sin repetidos: todas las transacciones bloquean las
+    // filas de versión en el mismo orden y no pueden interbloquearse entre sí
+    public Mono<Void> bump(Collection<Long> employeeIds, Collection<Long> userIds) {
+        return listVersionRepository.bump(ScheduleListVersionRepository.EMPLOYEE, sorted(employeeIds))
+                .then(listVersionRepository.bump(ScheduleListVersionRepository.USER, sorted(userIds)));
+    }
+
+    private static TreeSet<Long> sorted(Collection<Long> ids) {
+        TreeSet<Long> sorted = new TreeSet<>();
+        ids.stream().filter(Objects::nonNull).forEach(sorted::add);
+        return sorted;
+    }
+}
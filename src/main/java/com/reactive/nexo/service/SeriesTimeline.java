@@ -0,0 +1,208 @@
+package com.reactive.nexo.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Ocurrencias de una serie calculadas aritméticamente: cada periodo (días o semanas según la regla) repite
+// los mismos desplazamientos, así que cualquier ventana se alcanza con un salto directo sin recorrer la serie
+public final class SeriesTimeline {
+
+    public record Occurrence(LocalDateTime startAt, LocalDateTime endAt) {
+    }
+
+    private final RecurrenceRule rule;
+    private final LocalDateTime firstStart;
+    private final Duration duration;
+    private final LocalDate anchor;
+    private final LocalTime time;
+    private final int[] offsets;
+    private final int skipped;
+    private final int periodDays;
+
+    public SeriesTimeline(RecurrenceRule rule, LocalDateTime firstStart, LocalDateTime firstEnd) {
+        this.rule = rule;
+        this.firstStart = firstStart;
+        this.duration = Duration.between(firstStart, firstEnd);
+        this.time = firstStart.toLocalTime();
+        this.periodDays = rule.periodDays();
+
+        LocalDate firstDate = firstStart.toLocalDate();
+        if (rule.getFrequency() == RecurrenceRule.Frequency.DAILY) {
+            this.anchor = firstDate;
+            this.offsets = new int[]{0};
+        } else {
+            this.anchor = firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            this.offsets = rule.getByDay().isEmpty()
+                    ? new int[]{firstDate.getDayOfWeek().getValue() - 1}
+                    : rule.getByDay().stream().mapToInt(day -> day.getValue() - 1).toArray();
+        }
+
+        int before = 0;
+        for (int offset : offsets) {
+            if (anchor.plusDays(offset).isBefore(firstDate)) {
+                before++;
+            }
+        }
+        this.skipped = before;
+    }
+
+    public boolean startsOnRule() {
+        for (int offset : offsets) {
+            if (anchor.plusDays(offset).equals(firstStart.toLocalDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public LocalDateTime getFirstStart() {
+        return firstStart;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getPeriodDays() {
+        return periodDays;
+    }
+
+    // Fin de la última ocurrencia, o null si la serie no tiene fin
+    public LocalDateTime lastEnd() {
+        if (rule.getCount() != null) {
+            long ordinal = rule.getCount() - 1L + skipped;
+            return start(ordinal / offsets.length, (int) (ordinal % offsets.length)).plus(duration);
+        }
+        if (rule.getUntil() != null) {
+            LocalDateTime last = null;
+            long period = Math.max(0, Math.floorDiv(ChronoUnit.DAYS.between(anchor, rule.getUntil().toLocalDate()), periodDays));
+            for (long p = period; p >= 0 && last == null; p--) {
+                for (int i = offsets.length - 1; i >= 0; i--) {
+                    LocalDateTime candidate = start(p, i);
+                    if (ordinal(p, i) >= 0 && !candidate.isAfter(rule.getUntil())) {
+                        last = candidate;
+                        break;
+                    }
+                }
+            }
+            return last == null ? firstStart.plus(duration) : last.plus(duration);
+        }
+        return null;
+    }
+
+    // Ocurrencias con inicio <= to y fin >= from, en orden cronológico y calculadas bajo demanda
+    public Iterable<Occurrence> occurrences(LocalDateTime from, LocalDateTime to) {
+        long lowDays = ChronoUnit.DAYS.between(anchor, from.minus(duration).toLocalDate());
+        long firstPeriod = Math.max(0, Math.floorDiv(lowDays, periodDays));
+        return () -> new Iterator<>() {
+            private long period = firstPeriod;
+            private int index;
+            private Occurrence next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence current = next;
+                next = advance();
+                return current;
+            }
+
+            private Occurrence advance() {
+                while (true) {
+                    long ordinal = ordinal(period, index);
+                    LocalDateTime start = start(period, index);
+                    if (index == offsets.length - 1) {
+                        period++;
+                        index = 0;
+                    } else {
+                        index++;
+                    }
+                    if (ordinal < 0) {
+                        continue;
+                    }
+                    if (start.isAfter(to) || !withinLimits(ordinal, start)) {
+                        return null;
+                    }
+                    LocalDateTime end = start.plus(duration);
+                    if (!end.isBefore(from)) {
+                        return new Occurrence(start, end);
+                    }
+                }
+            }
+        };
+    }
+
+    public boolean hasOccurrenceAt(LocalDateTime startAt) {
+        for (Occurrence occurrence : occurrences(startAt, startAt)) {
+            if (occurrence.startAt().equals(startAt)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean overlaps(LocalDateTime startAt, LocalDateTime endAt) {
+        for (Occurrence occurrence : occurrences(startAt, endAt)) {
+            if (ScheduleOverlap.overlaps(occurrence.startAt(), occurrence.endAt(), startAt, endAt)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dos series periódicas repiten su combinación cada mcm(periodos) días a partir de que ambas están activas,
+    // así que basta con comparar un hiperperiodo en lugar de expandir todo el horizonte
+    public boolean conflictsWith(SeriesTimeline other) {
+        LocalDateTime joint = firstStart.isAfter(other.firstStart) ? firstStart : other.firstStart;
+        Duration longest = duration.compareTo(other.duration) >= 0 ? duration : other.duration;
+        long hyperPeriod = lcm(periodDays, other.periodDays);
+        LocalDateTime from = joint.minus(longest);
+        LocalDateTime to = joint.plusDays(hyperPeriod).plus(longest);
+        for (Occurrence occurrence : occurrences(from, to)) {
+            if (other.overlaps(occurrence.startAt(), occurrence.endAt())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean withinLimits(long ordinal, LocalDateTime start) {
+        if (rule.getCount() != null && ordinal >= rule.getCount()) {
+            return false;
+        }
+        return rule.getUntil() == null || !start.isAfter(rule.getUntil());
+    }
+
+    private long ordinal(long period, int index) {
+        return period * offsets.length + index - skipped;
+    }
+
+    private LocalDateTime start(long period, int index) {
+        return anchor.plusDays(period * periodDays + offsets[index]).atTime(time);
+    }
+
+    private static long lcm(long a, long b) {
+        long x = a;
+        long y = b;
+        while (y != 0) {
+            long t = y;
+            y = x % y;
+            x = t;
+        }
+        return a / x * b;
+    }
+}
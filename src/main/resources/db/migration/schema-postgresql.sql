@@ -0,0 +1,106 @@
+-- Esquema exclusivo de PostgreSQL. Las sentencias se separan con una línea ';;' (los bloques DO contienen ';')
+-- y cada una se ejecuta por separado: un fallo en una no deshace ni impide las demás
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+;;
+
+-- schedule_archive se crea como tabla normal en schema.sql; mientras siga vacía se sustituye por la versión
+-- particionada por mes. La partición por defecto solo recibe filas si no se pudo crear la del mes
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+                   WHERE c.relname = 'schedule_archive') THEN
+        IF EXISTS (SELECT 1 FROM schedule_archive) THEN
+            RAISE WARNING 'schedule_archive already holds rows; it stays unpartitioned';
+        ELSE
+            DROP TABLE schedule_archive;
+            CREATE TABLE schedule_archive (
+                id BIGINT NOT NULL,
+                employee_id BIGINT NOT NULL,
+                user_id BIGINT NOT NULL,
+                start_at TIMESTAMP NOT NULL,
+                end_at TIMESTAMP NOT NULL,
+                details TEXT,
+                headquarters VARCHAR(100),
+                office VARCHAR(100),
+                in_person BOOLEAN DEFAULT FALSE,
+                group_session BOOLEAN DEFAULT FALSE,
+                created_at TIMESTAMP,
+                updated_at TIMESTAMP,
+                version BIGINT NOT NULL DEFAULT 0,
+                archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                CONSTRAINT pk_schedule_archive PRIMARY KEY (id, start_at)
+            ) PARTITION BY RANGE (start_at);
+            CREATE TABLE schedule_archive_default PARTITION OF schedule_archive DEFAULT;
+            CREATE INDEX idx_schedule_archive_employee_start_at ON schedule_archive(employee_id, start_at);
+            CREATE INDEX idx_schedule_archive_user_start_at ON schedule_archive(user_id, start_at);
+        END IF;
+    END IF;
+END
+$$;
+;;
+
+-- Evita dobles reservas entre nodos: dos citas individuales del mismo empleado o usuario no pueden solaparse.
+-- Las columnas son TIMESTAMP sin zona, por eso se usa tsrange en lugar de tstzrange. Cada restricción va en su
+-- propia sentencia: si ya hay citas solapadas esa restricción no se crea, se emite un WARNING con los pares de
+-- ids en conflicto y el resto del esquema se aplica igual. Hay que resolver esos pares (mover o cancelar una de
+-- las citas) y volver a ejecutar este script; mientras tanto la restricción no protege entre nodos
+DO $$
+DECLARE
+    pairs TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'schedule_employee_no_overlap') THEN
+        ALTER TABLE schedule ADD CONSTRAINT schedule_employee_no_overlap
+            EXCLUDE USING gist (employee_id WITH =, tsrange(start_at, end_at) WITH &&)
+            WHERE (NOT group_session);
+    END IF;
+EXCEPTION WHEN exclusion_violation THEN
+    SELECT string_agg(pair, ', ') INTO pairs FROM (
+        SELECT a.id || '/' || b.id AS pair
+        FROM schedule a JOIN schedule b ON b.employee_id = a.employee_id AND b.id > a.id
+        WHERE NOT a.group_session AND NOT b.group_session
+          AND tsrange(a.start_at, a.end_at) && tsrange(b.start_at, b.end_at)
+        LIMIT 20) overlaps;
+    RAISE WARNING 'schedule_employee_no_overlap not created, overlapping schedule ids (first 20 pairs): %', pairs;
+END
+$$;
+;;
+
+DO $$
+DECLARE
+    pairs TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'schedule_user_no_overlap') THEN
+        ALTER TABLE schedule ADD CONSTRAINT schedule_user_no_overlap
+            EXCLUDE USING gist (user_id WITH =, tsrange(start_at, end_at) WITH &&)
+            WHERE (NOT group_session);
+    END IF;
+EXCEPTION WHEN exclusion_violation THEN
+    SELECT string_agg(pair, ', ') INTO pairs FROM (
+        SELECT a.id || '/' || b.id AS pair
+        FROM schedule a JOIN schedule b ON b.user_id = a.user_id AND b.id > a.id
+        WHERE NOT a.group_session AND NOT b.group_session
+          AND tsrange(a.start_at, a.end_at) && tsrange(b.start_at, b.end_at)
+        LIMIT 20) overlaps;
+    RAISE WARNING 'schedule_user_no_overlap not created, overlapping schedule ids (first 20 pairs): %', pairs;
+END
+$$;
+;;
+
+-- Dos sesiones grupales distintas del mismo empleado tampoco pueden solaparse
+DO $$
+DECLARE
+    pairs TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'group_session_employee_no_overlap') THEN
+        ALTER TABLE group_session ADD CONSTRAINT group_session_employee_no_overlap
+            EXCLUDE USING gist (employee_id WITH =, tsrange(start_at, end_at) WITH &&);
+    END IF;
+EXCEPTION WHEN exclusion_violation THEN
+    SELECT string_agg(pair, ', ') INTO pairs FROM (
+        SELECT a.id || '/' || b.id AS pair
+        FROM group_session a JOIN group_session b ON b.employee_id = a.employee_id AND b.id > a.id
+        WHERE tsrange(a.start_at, a.end_at) && tsrange(b.start_at, b.end_at)
+        LIMIT 20) overlaps;
+    RAISE WARNING 'group_session_employee_no_overlap not created, overlapping group_session ids (first 20 pairs): %', pairs;
+END
+$$;
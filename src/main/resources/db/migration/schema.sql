@@ -10,7 +10,8 @@ CREATE TABLE IF NOT EXISTS schedule (
     in_person BOOLEAN DEFAULT FALSE,
     group_session BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Ensure columns exist when table was created earlier without them
@@ -20,8 +21,163 @@ ALTER TABLE schedule ADD COLUMN IF NOT EXISTS in_person BOOLEAN DEFAULT FALSE;
 ALTER TABLE schedule ADD COLUMN IF NOT EXISTS group_session BOOLEAN DEFAULT FALSE;
 ALTER TABLE schedule ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
 ALTER TABLE schedule ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE schedule ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
 
-CREATE INDEX IF NOT EXISTS idx_schedule_employee_id ON schedule(employee_id);
-CREATE INDEX IF NOT EXISTS idx_schedule_user_id ON schedule(user_id);
+-- Historial por empleado/usuario ordenado por inicio; sustituyen a los índices de una sola columna
+CREATE INDEX IF NOT EXISTS idx_schedule_employee_start_at ON schedule(employee_id, start_at);
+CREATE INDEX IF NOT EXISTS idx_schedule_user_start_at ON schedule(user_id, start_at);
+DROP INDEX IF EXISTS idx_schedule_employee_id;
+DROP INDEX IF EXISTS idx_schedule_user_id;
 CREATE INDEX IF NOT EXISTS idx_schedule_start_at ON schedule(start_at);
-CREATE INDEX IF NOT EXISTS idx_schedule_end_at ON schedule(end_at);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_schedule_end_at ON schedule(end_at);
+-- Paginación por cursor (keyset) ordenada por (start_at, id)
+CREATE INDEX IF NOT EXISTS idx_schedule_start_at_id ON schedule(start_at, id);
+
+-- Series recurrentes: se guarda la regla y solo las excepciones; las ocurrencias se calculan al consultar
+CREATE TABLE IF NOT EXISTS schedule_series (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_at TIMESTAMP NOT NULL,
+    recurrence VARCHAR(255) NOT NULL,
+    last_end_at TIMESTAMP,
+    details TEXT,
+    headquarters VARCHAR(100),
+    office VARCHAR(100),
+    in_person BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_series_employee_id ON schedule_series(employee_id);
+CREATE INDEX IF NOT EXISTS idx_schedule_series_user_id ON schedule_series(user_id);
+
+CREATE TABLE IF NOT EXISTS schedule_series_override (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    series_id BIGINT NOT NULL REFERENCES schedule_series(id) ON DELETE CASCADE,
+    original_start_at TIMESTAMP NOT NULL,
+    cancelled BOOLEAN DEFAULT FALSE,
+    start_at TIMESTAMP,
+    end_at TIMESTAMP,
+    details TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_schedule_series_override UNIQUE (series_id, original_start_at)
+);
+
+-- Versión de los listados de citas por empleado (EMPLOYEE) y por usuario (USER) para los ETag: cada escritura
+-- la incrementa en su propia transacción. Una clave sin fila está en la versión 0
+CREATE TABLE IF NOT EXISTS schedule_list_version (
+    scope_type VARCHAR(10) NOT NULL,
+    scope_key BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_schedule_list_version PRIMARY KEY (scope_type, scope_key)
+);
+
+-- Sesiones grupales: una fila por empleado y franja exacta con el aforo y un contador de asistentes,
+-- de modo que admitir un asistente es un UPDATE condicionado en lugar de recorrer las citas del grupo
+CREATE TABLE IF NOT EXISTS group_session (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_at TIMESTAMP NOT NULL,
+    capacity INT NOT NULL,
+    attendee_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_group_session_slot UNIQUE (employee_id, start_at, end_at),
+    CONSTRAINT ck_group_session_capacity CHECK (attendee_count >= 0 AND attendee_count <= capacity)
+);
+
+CREATE TABLE IF NOT EXISTS group_session_attendee (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_session_id BIGINT NOT NULL REFERENCES group_session(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL,
+    schedule_id BIGINT NOT NULL REFERENCES schedule(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_group_session_attendee_schedule UNIQUE (schedule_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_group_session_attendee_session ON group_session_attendee(group_session_id);
+
+-- Citas grupales anteriores a la tabla de sesiones: se agrupan por empleado y franja. El aforo por defecto
+-- coincide con schedule.group-session.default-capacity y nunca queda por debajo de los asistentes existentes.
+-- Solo en la migración inicial (sin asistentes registrados): después la aplicación mantiene sesiones, asistentes
+-- y contadores juntos, y volver a rellenar asistentes sin sumarlos a attendee_count los descuadraría
+INSERT INTO group_session (employee_id, start_at, end_at, capacity, attendee_count)
+SELECT s.employee_id, s.start_at, s.end_at, GREATEST(COUNT(*), 50), COUNT(*)
+FROM schedule s
+WHERE s.group_session = TRUE
+  AND NOT EXISTS (SELECT 1 FROM group_session_attendee)
+  AND NOT EXISTS (SELECT 1 FROM group_session g
+                  WHERE g.employee_id = s.employee_id AND g.start_at = s.start_at AND g.end_at = s.end_at)
+GROUP BY s.employee_id, s.start_at, s.end_at;
+
+INSERT INTO group_session_attendee (group_session_id, user_id, schedule_id)
+SELECT g.id, s.user_id, s.id
+FROM schedule s
+JOIN group_session g ON g.employee_id = s.employee_id AND g.start_at = s.start_at AND g.end_at = s.end_at
+WHERE s.group_session = TRUE
+  AND NOT EXISTS (SELECT 1 FROM group_session_attendee)
+  AND NOT EXISTS (SELECT 1 FROM group_session_attendee a WHERE a.schedule_id = s.id);
+
+-- Agenda por empleado, sede u oficina y día: las citas del día ya serializadas, recalculadas en cada escritura
+CREATE TABLE IF NOT EXISTS agenda_day (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    scope_type VARCHAR(20) NOT NULL,
+    scope_key VARCHAR(255) NOT NULL,
+    agenda_date DATE NOT NULL,
+    entry_count INT NOT NULL DEFAULT 0,
+    entries TEXT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_agenda_day UNIQUE (scope_type, scope_key, agenda_date)
+);
+
+-- Cada recálculo toma un número de esta secuencia antes de leer las citas y solo sobrescribe el día si el
+-- guardado es de un recálculo anterior, así uno lento no pisa a uno posterior
+CREATE SEQUENCE IF NOT EXISTS agenda_day_build_seq;
+ALTER TABLE agenda_day ADD COLUMN IF NOT EXISTS build_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Recalcular la agenda de una sede u oficina sin recorrer toda la tabla
+CREATE INDEX IF NOT EXISTS idx_schedule_headquarters_office_start_at ON schedule(headquarters, office, start_at);
+-- Candidatas a conflicto de capacidad: citas presenciales de la sede por inicio (rama de la sede en
+-- findConflictCandidates, combinada con los índices de empleado y usuario)
+CREATE INDEX IF NOT EXISTS idx_schedule_headquarters_in_person_start_at ON schedule(headquarters, in_person, start_at);
+
+-- Bandeja de salida: un evento por alta, modificación o baja escrito en la misma transacción que la cita.
+-- El relay publica las filas pendientes por orden de id y las marca con published_at; las publicadas se
+-- conservan como registro de eventos durante schedule.outbox.retention
+CREATE TABLE IF NOT EXISTS schedule_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    schedule_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_outbox_published_at_id ON schedule_outbox(published_at, id);
+
+-- Archivo de citas terminadas hace más de schedule.archive.retention-days. En PostgreSQL la tabla se convierte
+-- en particionada por mes de start_at (ver schema-postgresql.sql) y las particiones se crean al archivar; aquí
+-- queda como tabla normal para H2. La clave incluye start_at porque PostgreSQL lo exige en tablas particionadas
+CREATE TABLE IF NOT EXISTS schedule_archive (
+    id BIGINT NOT NULL,
+    employee_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_at TIMESTAMP NOT NULL,
+    details TEXT,
+    headquarters VARCHAR(100),
+    office VARCHAR(100),
+    in_person BOOLEAN DEFAULT FALSE,
+    group_session BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_schedule_archive PRIMARY KEY (id, start_at)
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_archive_employee_start_at ON schedule_archive(employee_id, start_at);
+CREATE INDEX IF NOT EXISTS idx_schedule_archive_user_start_at ON schedule_archive(user_id, start_at);